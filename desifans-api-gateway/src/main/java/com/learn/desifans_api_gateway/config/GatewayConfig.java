@@ -1,13 +1,24 @@
 package com.learn.desifans_api_gateway.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Configuration
 public class GatewayConfig {
@@ -25,4 +36,39 @@ public class GatewayConfig {
 
         return new CorsWebFilter(source);
     }
+
+    /**
+     * Non-blocking JWT decoder for edge authentication, matching the user service's signing mode.
+     * HS256 (the default on both sides) verifies against the shared key ring selected by kid,
+     * RS256 against the user service's JWKS.
+     */
+    @Bean
+    public ReactiveJwtDecoder reactiveJwtDecoder(
+            Environment environment,
+            @Value("${gateway.security.jwt.algorithm:HS256}") String algorithm,
+            @Value("${gateway.security.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${gateway.security.jwt.issuer}") String issuer) {
+        OAuth2TokenValidator<Jwt> validator = JwtValidators.createDefaultWithIssuer(issuer);
+        return switch (algorithm) {
+            case "HS256" -> new HmacKeyRingJwtDecoder(hmacSecrets(environment),
+                    environment.getProperty("gateway.security.jwt.active-key-id"), validator);
+            case "RS256" -> {
+                NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withJwkSetUri(jwkSetUri).build();
+                decoder.setJwtValidator(validator);
+                yield decoder;
+            }
+            default -> throw new IllegalStateException("Unsupported JWT algorithm: " + algorithm);
+        };
+    }
+
+    // keys.<kid>: secret like the user service, or the single secret as key 'default'
+    private static Map<String, String> hmacSecrets(Environment environment) {
+        Map<String, String> secrets = new LinkedHashMap<>(Binder.get(environment)
+                .bind("gateway.security.jwt.keys", Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap()));
+        if (secrets.isEmpty()) {
+            secrets.put(HmacKeyRingJwtDecoder.DEFAULT_KEY_ID, environment.getRequiredProperty("gateway.security.jwt.secret"));
+        }
+        return secrets;
+    }
 }
@@ -0,0 +1,69 @@
+package com.learn.desifans_api_gateway.config;
+
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HS256 decoder over the same {@code kid} to secret key ring the user service signs with.
+ * Tokens are verified with the key their header names; tokens without a {@code kid} (issued
+ * before key ids existed) are checked against key {@value #DEFAULT_KEY_ID}, or the active key.
+ */
+class HmacKeyRingJwtDecoder implements ReactiveJwtDecoder {
+
+    static final String DEFAULT_KEY_ID = "default";
+
+    private final Map<String, ReactiveJwtDecoder> decoders = new LinkedHashMap<>();
+    private final ReactiveJwtDecoder unnamedKeyDecoder;
+
+    HmacKeyRingJwtDecoder(Map<String, String> secrets, String activeKeyId, OAuth2TokenValidator<Jwt> validator) {
+        if (secrets.isEmpty()) {
+            throw new IllegalStateException("No HS256 keys configured for gateway JWT validation");
+        }
+        secrets.forEach((keyId, secret) -> {
+            NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder
+                    .withSecretKey(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                    .macAlgorithm(MacAlgorithm.HS256)
+                    .build();
+            decoder.setJwtValidator(validator);
+            decoders.put(keyId, decoder);
+        });
+
+        String fallbackKeyId = activeKeyId != null && !activeKeyId.isBlank()
+                ? activeKeyId : decoders.keySet().iterator().next();
+        this.unnamedKeyDecoder = decoders.getOrDefault(DEFAULT_KEY_ID, decoders.get(fallbackKeyId));
+        if (unnamedKeyDecoder == null) {
+            throw new IllegalStateException("Active JWT key '" + fallbackKeyId + "' is not configured");
+        }
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        String keyId;
+        try {
+            JWT parsed = JWTParser.parse(token);
+            keyId = parsed instanceof SignedJWT signed ? signed.getHeader().getKeyID() : null;
+        } catch (ParseException e) {
+            return Mono.error(new BadJwtException("Malformed token", e));
+        }
+
+        ReactiveJwtDecoder decoder = keyId != null ? decoders.get(keyId) : unnamedKeyDecoder;
+        if (decoder == null) {
+            return Mono.error(new BadJwtException("Unknown signing key"));
+        }
+        return decoder.decode(token);
+    }
+}
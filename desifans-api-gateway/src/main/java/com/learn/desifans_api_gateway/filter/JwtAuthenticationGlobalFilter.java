@@ -0,0 +1,159 @@
+package com.learn.desifans_api_gateway.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Validates bearer tokens at the edge and forwards the caller's identity downstream.
+ *
+ * Requests with an invalid, non-access or revoked token are rejected with 401 before routing;
+ * revocation (logout, logout everywhere, password change) is read from the user service's
+ * Redis keys by {@link TokenRevocationChecker}.
+ * Valid requests get X-User-Id, X-User-Role and X-Session-Id headers plus an HMAC signature
+ * over them, so downstream services can trust the identity without verifying the JWT.
+ * Identity headers sent by clients are always stripped. Requests without a token are
+ * passed through and left to the downstream service's own authorization rules.
+ */
+@Component
+@Order(3)
+public class JwtAuthenticationGlobalFilter implements GlobalFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationGlobalFilter.class);
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+    public static final String SESSION_ID_HEADER = "X-Session-Id";
+    public static final String IDENTITY_TIMESTAMP_HEADER = "X-Identity-Timestamp";
+    public static final String IDENTITY_SIGNATURE_HEADER = "X-Identity-Signature";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String ACCESS_TOKEN_TYPE = "ACCESS_TOKEN";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MIN_IDENTITY_SECRET_BYTES = 32;
+
+    private final ReactiveJwtDecoder jwtDecoder;
+    private final TokenRevocationChecker revocationChecker;
+    private final List<String> publicPaths;
+    private final SecretKeySpec identityKey;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    // Mac is not thread-safe; one per event-loop thread
+    private final ThreadLocal<Mac> identityMac = ThreadLocal.withInitial(this::newMac);
+
+    public JwtAuthenticationGlobalFilter(ReactiveJwtDecoder jwtDecoder,
+                                         TokenRevocationChecker revocationChecker,
+                                         @Value("${gateway.security.jwt.public-paths}") List<String> publicPaths,
+                                         @Value("${gateway.security.identity.secret}") String identitySecret) {
+        this.jwtDecoder = jwtDecoder;
+        this.revocationChecker = revocationChecker;
+        this.publicPaths = publicPaths;
+        if (identitySecret == null || identitySecret.getBytes(StandardCharsets.UTF_8).length < MIN_IDENTITY_SECRET_BYTES) {
+            throw new IllegalStateException("gateway.security.identity.secret must be set to at least "
+                    + MIN_IDENTITY_SECRET_BYTES + " bytes");
+        }
+        this.identityKey = new SecretKeySpec(identitySecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USER_ROLE_HEADER);
+                    headers.remove(SESSION_ID_HEADER);
+                    headers.remove(IDENTITY_TIMESTAMP_HEADER);
+                    headers.remove(IDENTITY_SIGNATURE_HEADER);
+                })
+                .build();
+        ServerWebExchange stripped = exchange.mutate().request(request).build();
+
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX) || isPublicPath(request.getURI().getPath())) {
+            return chain.filter(stripped);
+        }
+
+        return jwtDecoder.decode(authHeader.substring(BEARER_PREFIX.length()))
+                .map(Optional::of)
+                .onErrorResume(JwtException.class, e -> {
+                    logger.debug("Invalid token for {}: {}", request.getURI().getPath(), e.getMessage());
+                    return Mono.just(Optional.empty());
+                })
+                .flatMap(jwt -> jwt
+                        .filter(this::isAccessToken)
+                        .map(valid -> revocationChecker.isRevoked(valid)
+                                .flatMap(revoked -> revoked ? reject(stripped) : chain.filter(withIdentity(stripped, valid))))
+                        .orElseGet(() -> reject(stripped)));
+    }
+
+    private boolean isAccessToken(Jwt jwt) {
+        return ACCESS_TOKEN_TYPE.equals(jwt.getClaimAsString("type"));
+    }
+
+    private boolean isPublicPath(String path) {
+        return publicPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private ServerWebExchange withIdentity(ServerWebExchange exchange, Jwt jwt) {
+        String userId = jwt.getSubject();
+        String role = valueOrEmpty(jwt.getClaimAsString("role"));
+        String sessionId = valueOrEmpty(jwt.getClaimAsString("sessionId"));
+        String timestamp = Long.toString(System.currentTimeMillis());
+        String signature = sign(userId + "|" + role + "|" + sessionId + "|" + timestamp);
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .header(USER_ID_HEADER, userId)
+                .header(USER_ROLE_HEADER, role)
+                .header(SESSION_ID_HEADER, sessionId)
+                .header(IDENTITY_TIMESTAMP_HEADER, timestamp)
+                .header(IDENTITY_SIGNATURE_HEADER, signature)
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+        exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+        return exchange.getResponse().setComplete();
+    }
+
+    private String sign(String payload) {
+        byte[] signature = identityMac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(identityKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize identity signature", e);
+        }
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,89 @@
+package com.learn.desifans_api_gateway.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Checks a verified access token against the revocations the user service keeps in Redis:
+ * the per-token blacklist ({@code auth:blacklist:<tokenId>}) and the user and session token
+ * generations ({@code auth:gen:user:<id>}, {@code auth:gen:session:<id>}). A token is revoked
+ * when it is blacklisted or either of its generations is at or before the stored one.
+ *
+ * All three keys are read with one MGET. What happens when Redis errors is {@code fail-open},
+ * as in the user service.
+ */
+@Component
+public class TokenRevocationChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationChecker.class);
+
+    private static final String BLACKLIST_PREFIX = "auth:blacklist:";
+    private static final String USER_GENERATION_PREFIX = "auth:gen:user:";
+    private static final String SESSION_GENERATION_PREFIX = "auth:gen:session:";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final boolean failOpen;
+
+    public TokenRevocationChecker(ReactiveStringRedisTemplate redisTemplate,
+                                  @Value("${gateway.security.revocation.enabled:true}") boolean enabled,
+                                  @Value("${gateway.security.revocation.fail-open:true}") boolean failOpen) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.failOpen = failOpen;
+    }
+
+    public Mono<Boolean> isRevoked(Jwt jwt) {
+        if (!enabled) {
+            return Mono.just(false);
+        }
+
+        String tokenId = jwt.getClaimAsString("tokenId");
+        String userId = jwt.getSubject();
+        String sessionId = jwt.getClaimAsString("sessionId");
+        // A missing claim reads a key nothing writes, and its value is ignored below
+        List<String> keys = List.of(
+                BLACKLIST_PREFIX + valueOrEmpty(tokenId),
+                USER_GENERATION_PREFIX + valueOrEmpty(userId),
+                SESSION_GENERATION_PREFIX + valueOrEmpty(sessionId));
+
+        return redisTemplate.opsForValue().multiGet(keys)
+                .map(values -> (tokenId != null && values.get(0) != null)
+                        || (userId != null && isStale(generationClaim(jwt, "ugen"), values.get(1)))
+                        || (sessionId != null && isStale(generationClaim(jwt, "sgen"), values.get(2))))
+                .onErrorResume(e -> {
+                    logger.warn("Redis not available for token revocation check, {} token: {}",
+                            failOpen ? "allowing" : "rejecting", e.getMessage());
+                    return Mono.just(!failOpen);
+                });
+    }
+
+    // 0 means never revoked; tokens issued before generations existed carry 0 as well
+    private static boolean isStale(long generation, String revokedBefore) {
+        if (revokedBefore == null) {
+            return false;
+        }
+        try {
+            long revoked = Long.parseLong(revokedBefore);
+            return revoked > 0 && generation <= revoked;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static long generationClaim(Jwt jwt, String claim) {
+        Object value = jwt.getClaim(claim);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,76 @@
+package com.learn.desifans_api_gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationCheckerTest {
+
+    @Test
+    void unrevokedTokenPasses() {
+        assertThat(checkerReturning(null, null, null, true).isRevoked(token(100, 100)).block()).isFalse();
+    }
+
+    @Test
+    void blacklistedTokenIsRevoked() {
+        assertThat(checkerReturning("blacklisted", null, null, true).isRevoked(token(100, 100)).block()).isTrue();
+    }
+
+    @Test
+    void generationAtOrBeforeTheRevocationIsRevoked() {
+        assertThat(checkerReturning(null, "100", null, true).isRevoked(token(100, 100)).block()).isTrue();
+        assertThat(checkerReturning(null, null, "150", true).isRevoked(token(100, 100)).block()).isTrue();
+        assertThat(checkerReturning(null, "99", "99", true).isRevoked(token(100, 100)).block()).isFalse();
+    }
+
+    @Test
+    void redisErrorsFollowTheFailOpenSetting() {
+        assertThat(failingChecker(true).isRevoked(token(100, 100)).block()).isFalse();
+        assertThat(failingChecker(false).isRevoked(token(100, 100)).block()).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TokenRevocationChecker checkerReturning(String blacklisted, String userGeneration,
+                                                           String sessionGeneration, boolean failOpen) {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList()))
+                .thenReturn(Mono.just(Arrays.asList(blacklisted, userGeneration, sessionGeneration)));
+        return new TokenRevocationChecker(redisTemplate, true, failOpen);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TokenRevocationChecker failingChecker(boolean failOpen) {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(Mono.error(new RedisConnectionFailureException("down")));
+        return new TokenRevocationChecker(redisTemplate, true, failOpen);
+    }
+
+    private static Jwt token(long userGeneration, long sessionGeneration) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "HS256")
+                .subject("u1")
+                .claim("tokenId", "t1")
+                .claim("sessionId", "s1")
+                .claim("ugen", userGeneration)
+                .claim("sgen", sessionGeneration)
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+    }
+}
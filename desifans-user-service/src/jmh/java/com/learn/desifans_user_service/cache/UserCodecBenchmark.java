@@ -0,0 +1,76 @@
+package com.learn.desifans_user_service.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.learn.desifans_user_service.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached user encode and decode with the binary codec against the JSON serializer it replaced.
+ * The entry sizes are printed once at setup.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.include=UserCodec} on JDK 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserCodecBenchmark {
+
+    private GenericJackson2JsonRedisSerializer json;
+    private CacheValueSerializer codec;
+    private User user;
+    private byte[] jsonBytes;
+    private byte[] codecBytes;
+
+    @Setup
+    public void setUp() {
+        // Configured like CacheConfig
+        json = new GenericJackson2JsonRedisSerializer();
+        json.configure(mapper -> mapper
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        codec = new CacheValueSerializer(json, new SimpleMeterRegistry());
+        user = UserCodecTest.creator();
+        jsonBytes = json.serialize(user);
+        codecBytes = codec.serialize(user);
+        System.out.printf("Entry size: json=%d bytes, codec=%d bytes%n", jsonBytes.length, codecBytes.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return json.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return codec.serialize(user);
+    }
+
+    @Benchmark
+    public Object jsonDecode() {
+        return json.deserialize(jsonBytes);
+    }
+
+    @Benchmark
+    public Object codecDecode() {
+        return codec.deserialize(codecBytes);
+    }
+}
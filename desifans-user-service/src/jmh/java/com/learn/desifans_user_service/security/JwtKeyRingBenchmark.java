@@ -0,0 +1,76 @@
+package com.learn.desifans_user_service.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification with the Algorithm and JWTVerifier built on every request, as before the
+ * key ring, against the prebuilt verifier the key ring hands out.
+ *
+ * <p>Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.include=JwtKeyRing} on JDK 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtKeyRingBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKey1234567890123456789012345";
+
+    @Param({"HS256", "RS256"})
+    public String algorithm;
+
+    private JwtKeyRing keyRing;
+    private JwtKeyRing.KeyEntry signingKey;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.security.jwt.algorithm", algorithm)
+                .withProperty("app.security.jwt.secret", SECRET);
+        keyRing = new JwtKeyRing(environment, TimeUnit.DAYS.toMillis(7));
+        signingKey = keyRing.signingKey();
+        token = JWT.create()
+                .withKeyId(signingKey.id())
+                .withSubject("user-1")
+                .withClaim("type", "access")
+                .withIssuer(JwtKeyRing.ISSUER)
+                .withExpiresAt(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .sign(signingKey.algorithm());
+    }
+
+    @Benchmark
+    public DecodedJWT perRequest() {
+        Algorithm perRequest = "RS256".equals(algorithm)
+                ? Algorithm.RSA256(signingKey.publicKey(), null)
+                : Algorithm.HMAC256(SECRET);
+        return JWT.require(perRequest)
+                .withIssuer(JwtKeyRing.ISSUER)
+                .build()
+                .verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT cached() {
+        return keyRing.verifierFor(JWT.decode(token).getKeyId()).verify(token);
+    }
+}
@@ -0,0 +1,99 @@
+package com.learn.desifans_user_service.cache;
+
+import com.learn.desifans_user_service.model.User;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Value serializer for the Redis cache tier.
+ *
+ * Users and plain strings (the alias entries) are written as a one-byte type tag followed
+ * by a compact binary body; anything else goes through the JSON serializer. JSON always
+ * starts with a printable character, never one of the tags, so entries written as JSON
+ * by earlier deploys still read back, except users: a JSON user predates the codec and
+ * carries the full document, secrets included, so it is dropped as a miss. A value that
+ * cannot be decoded is treated as a cache miss and reloaded rather than failing the request.
+ */
+@Slf4j
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final byte STRING_TAG = 0x01;
+    private static final byte USER_TAG = 0x02;
+
+    private final RedisSerializer<Object> fallback;
+    private final DistributionSummary encodedSize;
+
+    public CacheValueSerializer(RedisSerializer<Object> fallback, MeterRegistry meterRegistry) {
+        this.fallback = fallback;
+        this.encodedSize = DistributionSummary.builder("cache.value.size")
+                .baseUnit("bytes")
+                .description("Size of values written to the Redis cache")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes;
+        if (value instanceof String string) {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            bytes = new byte[utf8.length + 1];
+            bytes[0] = STRING_TAG;
+            System.arraycopy(utf8, 0, bytes, 1, utf8.length);
+        } else if (value instanceof User user) {
+            bytes = encodeUser(user);
+        } else {
+            bytes = fallback.serialize(value);
+        }
+        if (bytes != null) {
+            encodedSize.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return switch (bytes[0]) {
+                case STRING_TAG -> new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+                case USER_TAG -> UserCodec.decode(new DataInputStream(
+                        new ByteArrayInputStream(bytes, 1, bytes.length - 1)));
+                default -> withoutLegacyUser(fallback.deserialize(bytes));
+            };
+        } catch (IOException | RuntimeException e) {
+            log.debug("Unreadable cache entry treated as a miss: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Object withoutLegacyUser(Object value) {
+        if (value instanceof User) {
+            log.debug("Legacy JSON user entry treated as a miss");
+            return null;
+        }
+        return value;
+    }
+
+    private static byte[] encodeUser(User user) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeByte(USER_TAG);
+            UserCodec.encode(user, out);
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode user " + user.getId(), e);
+        }
+        return buffer.toByteArray();
+    }
+}
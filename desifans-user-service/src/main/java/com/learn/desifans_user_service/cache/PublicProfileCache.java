@@ -0,0 +1,69 @@
+package com.learn.desifans_user_service.cache;
+
+import com.learn.desifans_user_service.dto.PublicProfile;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Public profiles keyed by user id, cached apart from full users so the most common read
+ * never loads or ships anything a profile card does not show. Any change to a user evicts
+ * its entry; the next view rebuilds it from a projected read.
+ */
+@Component
+public class PublicProfileCache {
+
+    public static final String PUBLIC_PROFILES_CACHE = "public_profiles";
+
+    private final Cache profiles;
+
+    public PublicProfileCache(CacheManager cacheManager) {
+        this.profiles = Objects.requireNonNull(cacheManager.getCache(PUBLIC_PROFILES_CACHE));
+    }
+
+    public Optional<PublicProfile> get(String userId, Function<String, Optional<PublicProfile>> loader) {
+        PublicProfile cached = profiles.get(userId, PublicProfile.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<PublicProfile> loaded = loader.apply(userId);
+        loaded.ifPresent(profile -> profiles.put(userId, profile));
+        return loaded;
+    }
+
+    /**
+     * Profiles for {@code userIds} in the same order, loading every miss with one call to
+     * {@code loader}. Users whose profile is no longer visible are left out.
+     */
+    public List<PublicProfile> getAll(List<String> userIds, Function<List<String>, List<PublicProfile>> loader) {
+        Map<String, PublicProfile> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String userId : userIds) {
+            PublicProfile cached = profiles.get(userId, PublicProfile.class);
+            if (cached != null) {
+                found.put(userId, cached);
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (PublicProfile loaded : loader.apply(missing)) {
+                profiles.put(loaded.getId(), loaded);
+                found.put(loaded.getId(), loaded);
+            }
+        }
+        return userIds.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public void evict(String userId) {
+        profiles.evict(userId);
+    }
+}
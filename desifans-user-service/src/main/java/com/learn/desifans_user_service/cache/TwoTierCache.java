@@ -0,0 +1,165 @@
+package com.learn.desifans_user_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A cache that reads from an in-process Caffeine L1 before a shared Redis L2.
+ *
+ * Writes and evictions go to both tiers and are then broadcast so that other instances drop
+ * their L1 copy. L1 entries expire after a short TTL, which bounds staleness if a broadcast
+ * is ever missed. Redis failures degrade to L1-only caching instead of failing the call.
+ * Keys are compared by their string form, which is what the invalidation channel carries.
+ */
+@Slf4j
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<String, Object> local;
+    private final org.springframework.cache.Cache remote;
+    private final TwoTierCacheManager.InvalidationPublisher publisher;
+
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+
+    TwoTierCache(String name,
+                 Cache<String, Object> local,
+                 org.springframework.cache.Cache remote,
+                 TwoTierCacheManager.InvalidationPublisher publisher,
+                 MeterRegistry meterRegistry) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+        this.localHits = tierCounter(meterRegistry, name, "l1", "hit");
+        this.remoteHits = tierCounter(meterRegistry, name, "l2", "hit");
+        this.misses = tierCounter(meterRegistry, name, "l2", "miss");
+    }
+
+    private static Counter tierCounter(MeterRegistry meterRegistry, String cacheName, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+                .tag("cache", cacheName)
+                .tag("tier", tier)
+                .tag("result", result)
+                .description("Cache lookups answered by each tier")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = String.valueOf(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return value;
+        }
+
+        ValueWrapper wrapper = remoteGet(key);
+        if (wrapper == null) {
+            misses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        Object stored = toStoreValue(wrapper.get());
+        local.put(localKey, stored);
+        return stored;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object stored = lookup(key);
+        if (stored != null) {
+            return (T) fromStoreValue(stored);
+        }
+
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remotePut(key, value);
+        local.put(String.valueOf(key), toStoreValue(value));
+        publisher.evict(name, key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        try {
+            remote.evict(key);
+        } catch (RuntimeException e) {
+            log.warn("Redis evict failed for cache {} key {}: {}", name, key, e.getMessage());
+        }
+        evictLocal(key);
+        publisher.evict(name, key);
+    }
+
+    @Override
+    public void clear() {
+        try {
+            remote.clear();
+        } catch (RuntimeException e) {
+            log.warn("Redis clear failed for cache {}: {}", name, e.getMessage());
+        }
+        clearLocal();
+        publisher.clear(name);
+    }
+
+    void evictLocal(Object key) {
+        local.invalidate(String.valueOf(key));
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private ValueWrapper remoteGet(Object key) {
+        try {
+            return remote.get(key);
+        } catch (RuntimeException e) {
+            log.debug("Redis read failed for cache {} key {}: {}", name, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void remotePut(Object key, Object value) {
+        try {
+            remote.put(key, value);
+        } catch (RuntimeException e) {
+            log.debug("Redis write failed for cache {} key {}: {}", name, key, e.getMessage());
+        }
+    }
+}
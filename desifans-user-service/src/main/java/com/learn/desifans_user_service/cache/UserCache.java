@@ -0,0 +1,125 @@
+package com.learn.desifans_user_service.cache;
+
+import com.learn.desifans_user_service.model.User;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * User cache with one canonical entry per user id.
+ *
+ * Lookups by username or email go through small alias entries ({@code username:<name>},
+ * {@code email:<address>}) that only hold the user id, so each user is stored once however
+ * it was looked up. An alias is trusted only if the canonical entry it points to still has
+ * that username or email; otherwise it is treated as a miss and rewritten. Writing or
+ * evicting the canonical entry drops the aliases of the previous version as well.
+ *
+ * Users are cached as the {@link UserCodec} view, without credentials, security history or
+ * earnings, and every read returns that view whether it was a hit or a load. Code that
+ * needs the full document or intends to save it must read from the repository.
+ */
+@Component
+public class UserCache {
+
+    public static final String USERS_CACHE = "users";
+    public static final String ALIASES_CACHE = "user_aliases";
+
+    private static final String USERNAME_ALIAS = "username:";
+    private static final String EMAIL_ALIAS = "email:";
+
+    private final Cache users;
+    private final Cache aliases;
+
+    public UserCache(CacheManager cacheManager) {
+        this.users = Objects.requireNonNull(cacheManager.getCache(USERS_CACHE));
+        this.aliases = Objects.requireNonNull(cacheManager.getCache(ALIASES_CACHE));
+    }
+
+    public Optional<User> getById(String userId, Function<String, Optional<User>> loader) {
+        User cached = users.get(userId, User.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return loader.apply(userId).map(this::store);
+    }
+
+    public Optional<User> getByUsername(String username, Function<String, Optional<User>> loader) {
+        return getByAlias(USERNAME_ALIAS + username, user -> username.equals(user.getUsername()), username, loader);
+    }
+
+    public Optional<User> getByEmail(String email, Function<String, Optional<User>> loader) {
+        return getByAlias(EMAIL_ALIAS + email, user -> email.equals(user.getEmail()), email, loader);
+    }
+
+    private Optional<User> getByAlias(String alias, Predicate<User> stillMatches,
+                                      String value, Function<String, Optional<User>> loader) {
+        String userId = aliases.get(alias, String.class);
+        if (userId != null) {
+            User cached = users.get(userId, User.class);
+            if (cached != null && stillMatches.test(cached)) {
+                return Optional.of(cached);
+            }
+        }
+        return loader.apply(value).map(this::store);
+    }
+
+    /**
+     * Store the canonical entry and its aliases, dropping aliases the previous version had
+     */
+    public void put(User user) {
+        if (user.getId() != null) {
+            store(user);
+        }
+    }
+
+    private User store(User user) {
+        User view = UserCodec.cachedView(user);
+        User previous = users.get(user.getId(), User.class);
+        if (previous != null) {
+            evictChangedAliases(previous, user);
+        }
+        users.put(user.getId(), view);
+        if (user.getUsername() != null) {
+            aliases.put(USERNAME_ALIAS + user.getUsername(), user.getId());
+        }
+        if (user.getEmail() != null) {
+            aliases.put(EMAIL_ALIAS + user.getEmail(), user.getId());
+        }
+        return view;
+    }
+
+    /**
+     * Drop the canonical entry and every alias of the user
+     */
+    public void evict(User user) {
+        User previous = users.get(user.getId(), User.class);
+        if (previous != null) {
+            evictAliases(previous);
+        }
+        evictAliases(user);
+        users.evict(user.getId());
+    }
+
+    private void evictChangedAliases(User previous, User current) {
+        if (previous.getUsername() != null && !previous.getUsername().equals(current.getUsername())) {
+            aliases.evict(USERNAME_ALIAS + previous.getUsername());
+        }
+        if (previous.getEmail() != null && !previous.getEmail().equals(current.getEmail())) {
+            aliases.evict(EMAIL_ALIAS + previous.getEmail());
+        }
+    }
+
+    private void evictAliases(User user) {
+        if (user.getUsername() != null) {
+            aliases.evict(USERNAME_ALIAS + user.getUsername());
+        }
+        if (user.getEmail() != null) {
+            aliases.evict(EMAIL_ALIAS + user.getEmail());
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.learn.desifans_user_service.cache;
+
+import com.learn.desifans_user_service.model.CreatorProfile;
+import com.learn.desifans_user_service.model.CreatorSettings;
+import com.learn.desifans_user_service.model.CreatorStatistics;
+import com.learn.desifans_user_service.model.PrivacySettings;
+import com.learn.desifans_user_service.model.TipMenu;
+import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.model.UserPreferences;
+import com.learn.desifans_user_service.model.UserProfile;
+import com.learn.desifans_user_service.model.UserRole;
+import com.learn.desifans_user_service.model.UserStatus;
+import com.learn.desifans_user_service.model.VerificationStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of the cached view of a {@link User}.
+ *
+ * The cached view leaves out the password hash, the security history (failed logins,
+ * lockout, security events), the phone number, the date of birth and creator earnings;
+ * decoded users carry defaults there and must never be saved. Fields are written in a
+ * fixed order behind a version byte, and new fields are only ever appended in a new
+ * version: a reader decodes the fields its own version knows and ignores any trailing
+ * bytes, so old and new instances can share entries during a rolling deploy.
+ */
+final class UserCodec {
+
+    static final int VERSION = 1;
+
+    private UserCodec() {
+    }
+
+    static void encode(User user, DataOutputStream out) throws IOException {
+        out.writeByte(VERSION);
+        writeString(out, user.getId());
+        writeString(out, user.getUsername());
+        writeString(out, user.getEmail());
+        writeEnum(out, user.getRole());
+        writeEnum(out, user.getStatus());
+        out.writeBoolean(user.getEmailVerified());
+        writeTime(out, user.getCreatedAt());
+        writeTime(out, user.getUpdatedAt());
+        writeTime(out, user.getLastActiveAt());
+
+        UserProfile profile = user.getProfile();
+        out.writeBoolean(profile != null);
+        if (profile != null) {
+            writeProfile(out, profile);
+        }
+
+        CreatorProfile creatorProfile = user.getCreatorProfile();
+        out.writeBoolean(creatorProfile != null);
+        if (creatorProfile != null) {
+            writeCreatorProfile(out, creatorProfile);
+        }
+    }
+
+    /**
+     * Reduce a user to exactly what a cache read would return
+     */
+    static User cachedView(User user) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            encode(user, out);
+            return decode(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decode a user written by any version, reading the fields known to {@link #VERSION}
+     */
+    static User decode(DataInputStream in) throws IOException {
+        int version = in.readUnsignedByte();
+        if (version < 1) {
+            throw new IOException("Unsupported user encoding version " + version);
+        }
+
+        User user = new User();
+        user.setId(readString(in));
+        user.setUsername(readString(in));
+        user.setEmail(readString(in));
+        user.setRole(readEnum(in, UserRole.class));
+        user.setStatus(readEnum(in, UserStatus.class));
+        user.setEmailVerified(in.readBoolean());
+        user.setCreatedAt(readTime(in));
+        user.setUpdatedAt(readTime(in));
+        user.setLastActiveAt(readTime(in));
+        user.setProfile(in.readBoolean() ? readProfile(in) : null);
+        user.setCreatorProfile(in.readBoolean() ? readCreatorProfile(in) : null);
+        return user;
+    }
+
+    private static void writeProfile(DataOutputStream out, UserProfile profile) throws IOException {
+        writeString(out, profile.getDisplayName());
+        writeString(out, profile.getBio());
+        writeString(out, profile.getProfilePicture());
+        writeString(out, profile.getBannerImage());
+        writeString(out, profile.getLocation());
+        writeString(out, profile.getWebsite());
+        writeStrings(out, profile.getSocialLinks());
+        out.writeBoolean(profile.getIsVerified());
+
+        UserPreferences preferences = profile.getPreferences();
+        out.writeBoolean(preferences != null);
+        if (preferences != null) {
+            out.writeBoolean(preferences.getEmailNotifications());
+            out.writeBoolean(preferences.getPushNotifications());
+            out.writeBoolean(preferences.getMarketingEmails());
+            writeString(out, preferences.getLanguage());
+            writeString(out, preferences.getTimezone());
+            writeString(out, preferences.getTheme());
+
+            PrivacySettings privacy = preferences.getPrivacySettings();
+            out.writeBoolean(privacy != null);
+            if (privacy != null) {
+                out.writeBoolean(privacy.getProfileVisible());
+                out.writeBoolean(privacy.getShowOnlineStatus());
+                out.writeBoolean(privacy.getAllowDirectMessages());
+                out.writeBoolean(privacy.getShowSubscriberCount());
+                out.writeBoolean(privacy.getAllowTips());
+            }
+        }
+    }
+
+    private static UserProfile readProfile(DataInputStream in) throws IOException {
+        UserProfile profile = new UserProfile();
+        profile.setDisplayName(readString(in));
+        profile.setBio(readString(in));
+        profile.setProfilePicture(readString(in));
+        profile.setBannerImage(readString(in));
+        profile.setLocation(readString(in));
+        profile.setWebsite(readString(in));
+        profile.setSocialLinks(readStrings(in));
+        profile.setIsVerified(in.readBoolean());
+
+        if (!in.readBoolean()) {
+            profile.setPreferences(null);
+            return profile;
+        }
+        UserPreferences preferences = new UserPreferences();
+        preferences.setEmailNotifications(in.readBoolean());
+        preferences.setPushNotifications(in.readBoolean());
+        preferences.setMarketingEmails(in.readBoolean());
+        preferences.setLanguage(readString(in));
+        preferences.setTimezone(readString(in));
+        preferences.setTheme(readString(in));
+
+        if (in.readBoolean()) {
+            PrivacySettings privacy = new PrivacySettings();
+            privacy.setProfileVisible(in.readBoolean());
+            privacy.setShowOnlineStatus(in.readBoolean());
+            privacy.setAllowDirectMessages(in.readBoolean());
+            privacy.setShowSubscriberCount(in.readBoolean());
+            privacy.setAllowTips(in.readBoolean());
+            preferences.setPrivacySettings(privacy);
+        } else {
+            preferences.setPrivacySettings(null);
+        }
+        profile.setPreferences(preferences);
+        return profile;
+    }
+
+    private static void writeCreatorProfile(DataOutputStream out, CreatorProfile creator) throws IOException {
+        writeString(out, creator.getCreatorName());
+        writeString(out, creator.getCategory());
+        writeString(out, creator.getDescription());
+        writeDecimal(out, creator.getSubscriptionPrice());
+        writeString(out, creator.getCurrency());
+        out.writeBoolean(creator.getIsVerified());
+        writeEnum(out, creator.getVerificationStatus());
+        writeStrings(out, creator.getContentWarnings());
+        writeTime(out, creator.getCreatorSince());
+
+        TipMenu tipMenu = creator.getTipMenu();
+        out.writeBoolean(tipMenu != null);
+        if (tipMenu != null) {
+            List<TipMenu.TipOption> options = tipMenu.getOptions() != null ? tipMenu.getOptions() : List.of();
+            writeVarInt(out, options.size());
+            for (TipMenu.TipOption option : options) {
+                writeDecimal(out, option.getAmount());
+                writeString(out, option.getLabel());
+            }
+            writeString(out, tipMenu.getCustomMessage());
+            out.writeBoolean(tipMenu.getEnabled());
+        }
+
+        CreatorSettings settings = creator.getSettings();
+        out.writeBoolean(settings != null);
+        if (settings != null) {
+            out.writeBoolean(settings.getAllowSubscriptions());
+            out.writeBoolean(settings.getAllowTips());
+            out.writeBoolean(settings.getAllowCustomRequests());
+            out.writeBoolean(settings.getEnableLiveStreaming());
+            out.writeBoolean(settings.getAutoRenewSubscriptions());
+            writeVarInt(out, settings.getMaxCustomRequestPrice());
+            writeString(out, settings.getPayoutSchedule());
+        }
+
+        // Earnings are private to the creator and stay out of the shared cache
+        CreatorStatistics statistics = creator.getStatistics();
+        out.writeBoolean(statistics != null);
+        if (statistics != null) {
+            writeVarLong(out, statistics.getSubscriberCount());
+            writeVarLong(out, statistics.getContentCount());
+            writeVarLong(out, statistics.getLikeCount());
+            writeVarLong(out, statistics.getViewCount());
+            out.writeDouble(statistics.getAverageRating());
+        }
+    }
+
+    private static CreatorProfile readCreatorProfile(DataInputStream in) throws IOException {
+        CreatorProfile creator = new CreatorProfile();
+        creator.setCreatorName(readString(in));
+        creator.setCategory(readString(in));
+        creator.setDescription(readString(in));
+        creator.setSubscriptionPrice(readDecimal(in));
+        creator.setCurrency(readString(in));
+        creator.setIsVerified(in.readBoolean());
+        creator.setVerificationStatus(readEnum(in, VerificationStatus.class));
+        creator.setContentWarnings(readStrings(in));
+        creator.setCreatorSince(readTime(in));
+
+        TipMenu tipMenu = null;
+        if (in.readBoolean()) {
+            tipMenu = new TipMenu();
+            int size = readVarInt(in);
+            List<TipMenu.TipOption> options = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                options.add(new TipMenu.TipOption(readDecimal(in), readString(in)));
+            }
+            tipMenu.setOptions(options);
+            tipMenu.setCustomMessage(readString(in));
+            tipMenu.setEnabled(in.readBoolean());
+        }
+        creator.setTipMenu(tipMenu);
+
+        CreatorSettings settings = null;
+        if (in.readBoolean()) {
+            settings = new CreatorSettings();
+            settings.setAllowSubscriptions(in.readBoolean());
+            settings.setAllowTips(in.readBoolean());
+            settings.setAllowCustomRequests(in.readBoolean());
+            settings.setEnableLiveStreaming(in.readBoolean());
+            settings.setAutoRenewSubscriptions(in.readBoolean());
+            settings.setMaxCustomRequestPrice(readVarInt(in));
+            settings.setPayoutSchedule(readString(in));
+        }
+        creator.setSettings(settings);
+
+        CreatorStatistics statistics = null;
+        if (in.readBoolean()) {
+            statistics = new CreatorStatistics();
+            statistics.setSubscriberCount(readVarLong(in));
+            statistics.setContentCount(readVarLong(in));
+            statistics.setLikeCount(readVarLong(in));
+            statistics.setViewCount(readVarLong(in));
+            statistics.setAverageRating(in.readDouble());
+        }
+        creator.setStatistics(statistics);
+        return creator;
+    }
+
+    // Strings are a varint of (byte length + 1) followed by UTF-8; 0 means null
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        List<String> list = values != null ? values : List.of();
+        writeVarInt(out, list.size());
+        for (String value : list) {
+            writeString(out, value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int size = readVarInt(in);
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    // Enums are stored by name so that reordering constants cannot corrupt cached entries
+    private static void writeEnum(DataOutputStream out, Enum<?> value) throws IOException {
+        writeString(out, value != null ? value.name() : null);
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream in, Class<E> type) throws IOException {
+        String name = readString(in);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            // Constant added by a newer deploy; fail the read so the entry is reloaded
+            throw new IOException("Unknown " + type.getSimpleName() + " " + name, e);
+        }
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        writeString(out, value != null ? value.toPlainString() : null);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        String value = readString(in);
+        return value != null ? new BigDecimal(value) : null;
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault());
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    // Unsigned LEB128: counters and lengths are small, so most take one or two bytes
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
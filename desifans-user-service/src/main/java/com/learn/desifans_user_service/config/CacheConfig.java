@@ -0,0 +1,60 @@
+package com.learn.desifans_user_service.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.learn.desifans_user_service.cache.CacheValueSerializer;
+import com.learn.desifans_user_service.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    
+    /**
+     * Two-tier cache: a per-instance Caffeine L1 in front of the shared Redis cache
+     */
+    @Bean
+    @ConditionalOnBean(RedisConnectionFactory.class)
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedisTemplate<String, String> stringRedisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${spring.cache.redis.time-to-live:3600000}") long remoteTtl,
+                                     @Value("${app.cache.local.max-size:10000}") long localMaxSize,
+                                     @Value("${app.cache.local.ttl:30000}") long localTtl) {
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        jsonSerializer.configure(mapper -> mapper
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        CacheValueSerializer serializer = new CacheValueSerializer(jsonSerializer, meterRegistry);
+        
+        RedisCacheConfiguration remoteConfiguration = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMillis(remoteTtl))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+        RedisCacheManager remoteCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(remoteConfiguration)
+                .build();
+        remoteCacheManager.afterPropertiesSet();
+        
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(remoteCacheManager, stringRedisTemplate,
+                meterRegistry, localMaxSize, Duration.ofMillis(localTtl));
+        listenerContainer.addMessageListener(cacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        return cacheManager;
+    }
+}
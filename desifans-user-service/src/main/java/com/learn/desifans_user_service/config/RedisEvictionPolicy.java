@@ -0,0 +1,40 @@
+package com.learn.desifans_user_service.config;
+
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Reads the {@code maxmemory-policy} of the Redis server behind a template. Under any policy
+ * other than {@code noeviction} a full server drops keys before their TTL, so state that must
+ * not silently disappear (revocations, sessions, the write-behind queue) is only safe there.
+ */
+public final class RedisEvictionPolicy {
+
+    public static final String NO_EVICTION = "noeviction";
+
+    private RedisEvictionPolicy() {
+    }
+
+    /**
+     * The server's eviction policy, or empty if INFO is not available
+     */
+    public static Optional<String> of(RedisTemplate<?, ?> redisTemplate) {
+        try {
+            Properties info = redisTemplate.execute(
+                    (RedisCallback<Properties>) connection -> connection.serverCommands().info("memory"));
+            return Optional.ofNullable(info).map(properties -> properties.getProperty("maxmemory_policy"));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * True only when the server is known to evict keys under memory pressure
+     */
+    public static boolean evicts(RedisTemplate<?, ?> redisTemplate) {
+        return of(redisTemplate).filter(policy -> !NO_EVICTION.equals(policy)).isPresent();
+    }
+}
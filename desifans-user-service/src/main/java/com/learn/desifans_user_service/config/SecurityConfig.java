@@ -1,13 +1,14 @@
 package com.learn.desifans_user_service.config;
 
+import com.learn.desifans_user_service.security.CalibratedPasswordEncoder;
 import com.learn.desifans_user_service.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -26,8 +27,16 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12); // 12 rounds as specified in roadmap
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.security.password.bcrypt-rounds}") int bcryptRounds,
+            @Value("${app.security.password.calibration.enabled:true}") boolean calibrationEnabled,
+            @Value("${app.security.password.calibration.target-latency:250}") long targetLatencyMillis,
+            @Value("${app.security.password.calibration.max-rounds:15}") int maxRounds) {
+        if (!calibrationEnabled) {
+            return new CalibratedPasswordEncoder(bcryptRounds);
+        }
+        // bcrypt-rounds is the floor; faster hosts get a higher cost within the latency budget
+        return CalibratedPasswordEncoder.calibrate(targetLatencyMillis, bcryptRounds, maxRounds);
     }
     
     @Bean
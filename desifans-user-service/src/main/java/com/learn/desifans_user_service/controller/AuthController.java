@@ -5,7 +5,10 @@ import com.learn.desifans_user_service.dto.AuthenticationResponse;
 import com.learn.desifans_user_service.dto.LoginRequest;
 import com.learn.desifans_user_service.dto.RefreshTokenRequest;
 import com.learn.desifans_user_service.dto.UserRegistrationRequest;
+import com.learn.desifans_user_service.exception.ServiceOverloadedException;
 import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.security.ClientIpResolver;
+import com.learn.desifans_user_service.security.LoginThrottle;
 import com.learn.desifans_user_service.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +26,8 @@ import jakarta.validation.Valid;
 public class AuthController {
 
     private final UserService userService;
+    private final LoginThrottle loginThrottle;
+    private final ClientIpResolver clientIpResolver;
 
     /**
      * User registration
@@ -151,9 +156,12 @@ public class AuthController {
             HttpServletRequest httpRequest) {
         log.info("Login attempt for user: {}", request.getLoginIdentifier());
         
+        // Reject abusive traffic before any database read or password hash
+        String ipAddress = clientIpResolver.resolve(httpRequest);
+        loginThrottle.acquire(request.getLoginIdentifier(), ipAddress);
+        
         try {
-            // Get client IP and User-Agent
-            String ipAddress = getClientIpAddress(httpRequest);
+            // Get User-Agent
             String userAgent = httpRequest.getHeader("User-Agent");
             
             UserService.AuthenticationResult result = userService.authenticateUser(
@@ -176,6 +184,9 @@ public class AuthController {
                     .data(authResponse)
                     .build());
                     
+        } catch (ServiceOverloadedException e) {
+            // Let the global handler answer 503 with Retry-After instead of a login failure
+            throw e;
         } catch (Exception e) {
             log.error("Login failed for user: {}", request.getLoginIdentifier(), e);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -188,21 +199,4 @@ public class AuthController {
                             .build());
         }
     }
-
-    /**
-     * Extract client IP address from request
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
-    }
 }
\ No newline at end of file
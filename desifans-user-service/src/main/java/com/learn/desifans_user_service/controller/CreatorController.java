@@ -0,0 +1,76 @@
+package com.learn.desifans_user_service.controller;
+
+import com.learn.desifans_user_service.dto.ApiResponse;
+import com.learn.desifans_user_service.dto.CursorPage;
+import com.learn.desifans_user_service.dto.PublicProfile;
+import com.learn.desifans_user_service.repository.UserSort;
+import com.learn.desifans_user_service.service.CreatorDirectoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+
+@RestController
+@RequestMapping("/creators")
+@RequiredArgsConstructor
+public class CreatorController {
+
+    private final CreatorDirectoryService creatorDirectoryService;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<CursorPage<PublicProfile>>> listCreators(
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "false") boolean verifiedOnly,
+            @RequestParam(defaultValue = "POPULAR") UserSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        if (sort == UserSort.PRICE) {
+            throw new IllegalArgumentException("Use /creators/by-price to list creators by price");
+        }
+        CursorPage<PublicProfile> creators = creatorDirectoryService.listCreators(
+                category, verifiedOnly, sort, cursor, Math.clamp(limit, 1, 50), includeTotal);
+        
+        return ResponseEntity.ok(ApiResponse.<CursorPage<PublicProfile>>builder()
+                .success(true)
+                .message("Creators retrieved successfully")
+                .data(creators)
+                .build());
+    }
+
+    @GetMapping("/top")
+    public ResponseEntity<ApiResponse<CursorPage<PublicProfile>>> listTopCreators(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        CursorPage<PublicProfile> creators = creatorDirectoryService.listTopCreators(
+                category, cursor, Math.clamp(limit, 1, 50));
+        
+        return ResponseEntity.ok(ApiResponse.<CursorPage<PublicProfile>>builder()
+                .success(true)
+                .message("Creators retrieved successfully")
+                .data(creators)
+                .build());
+    }
+
+    @GetMapping("/by-price")
+    public ResponseEntity<ApiResponse<CursorPage<PublicProfile>>> listCreatorsByPrice(
+            @RequestParam(defaultValue = "0") BigDecimal min,
+            @RequestParam(defaultValue = "1000000") BigDecimal max,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        CursorPage<PublicProfile> creators = creatorDirectoryService.listCreatorsByPrice(
+                min, max, cursor, Math.clamp(limit, 1, 50), includeTotal);
+        
+        return ResponseEntity.ok(ApiResponse.<CursorPage<PublicProfile>>builder()
+                .success(true)
+                .message("Creators retrieved successfully")
+                .data(creators)
+                .build());
+    }
+}
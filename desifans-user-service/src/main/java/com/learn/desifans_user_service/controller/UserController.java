@@ -2,6 +2,9 @@ package com.learn.desifans_user_service.controller;
 
 import com.learn.desifans_user_service.dto.ApiResponse;
 import com.learn.desifans_user_service.dto.ChangePasswordRequest;
+import com.learn.desifans_user_service.dto.CursorPage;
+import com.learn.desifans_user_service.dto.PublicProfile;
+import com.learn.desifans_user_service.dto.Suggestion;
 import com.learn.desifans_user_service.dto.UserProfileUpdateRequest;
 import com.learn.desifans_user_service.model.User;
 import com.learn.desifans_user_service.security.SecurityUtils;
@@ -12,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.util.List;
 
 @RestController
 @RequestMapping("/users")
@@ -70,16 +74,47 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<ApiResponse<User>> getUserProfile(@PathVariable String userId) {
-        log.info("Getting profile for user ID: {}", userId);
+    public ResponseEntity<ApiResponse<PublicProfile>> getUserProfile(@PathVariable String userId) {
+        log.debug("Getting public profile for user ID: {}", userId);
         
-        // Use non-cached method to avoid Redis connection issues
-        User user = userService.findUserByIdNoCache(userId);
+        PublicProfile profile = userService.getPublicProfile(userId);
         
-        return ResponseEntity.ok(ApiResponse.<User>builder()
+        return ResponseEntity.ok(ApiResponse.<PublicProfile>builder()
                 .success(true)
                 .message("Profile retrieved successfully")
-                .data(user)
+                .data(profile)
+                .build());
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<Suggestion>>> suggestUsers(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        List<Suggestion> suggestions = userService.suggestUsers(prefix, Math.clamp(limit, 1, 20));
+        
+        return ResponseEntity.ok(ApiResponse.<List<Suggestion>>builder()
+                .success(true)
+                .message("Suggestions retrieved successfully")
+                .data(suggestions)
+                .build());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<CursorPage<PublicProfile>>> searchUsers(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "false") boolean creatorsOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        
+        CursorPage<PublicProfile> results = userService.searchUsers(
+                query, creatorsOnly, cursor, Math.clamp(limit, 1, 50), includeTotal);
+        
+        return ResponseEntity.ok(ApiResponse.<CursorPage<PublicProfile>>builder()
+                .success(true)
+                .message("Search completed successfully")
+                .data(results)
                 .build());
     }
 
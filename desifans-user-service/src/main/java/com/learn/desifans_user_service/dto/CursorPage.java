@@ -0,0 +1,25 @@
+package com.learn.desifans_user_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paged listing. {@code nextCursor} is absent on the last page, and
+ * {@code total} is only present when the caller asked for it, since counting costs a query.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private Long total;
+}
@@ -0,0 +1,105 @@
+package com.learn.desifans_user_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.learn.desifans_user_service.model.CreatorProfile;
+import com.learn.desifans_user_service.model.CreatorStatistics;
+import com.learn.desifans_user_service.model.PrivacySettings;
+import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.model.UserProfile;
+import com.learn.desifans_user_service.model.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What anyone may see of a user: the profile card and, for creators, the public part of
+ * the creator profile. Built from a projected User, so it never holds more than that.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PublicProfile {
+
+    private String id;
+    private String username;
+    private UserRole role;
+    private String displayName;
+    private String bio;
+    private String profilePicture;
+    private String bannerImage;
+    private String location;
+    private String website;
+    private List<String> socialLinks;
+    private boolean verified;
+    private CreatorSummary creator;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class CreatorSummary {
+        private String creatorName;
+        private String category;
+        private String description;
+        private BigDecimal subscriptionPrice;
+        private String currency;
+        private boolean verified;
+        // Null when the creator hides their subscriber count
+        private Long subscriberCount;
+        private long contentCount;
+        private long likeCount;
+        private double averageRating;
+    }
+
+    public static PublicProfile fromUser(User user) {
+        PublicProfileBuilder builder = PublicProfile.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .role(user.getRole());
+
+        UserProfile profile = user.getProfile();
+        boolean showSubscriberCount = true;
+        if (profile != null) {
+            builder.displayName(profile.getDisplayName())
+                    .bio(profile.getBio())
+                    .profilePicture(profile.getProfilePicture())
+                    .bannerImage(profile.getBannerImage())
+                    .location(profile.getLocation())
+                    .website(profile.getWebsite())
+                    .socialLinks(profile.getSocialLinks() != null ? new ArrayList<>(profile.getSocialLinks()) : null)
+                    .verified(profile.getIsVerified());
+            if (profile.getPreferences() != null) {
+                PrivacySettings privacy = profile.getPreferences().getPrivacySettings();
+                showSubscriberCount = privacy == null || privacy.getShowSubscriberCount();
+            }
+        }
+
+        CreatorProfile creatorProfile = user.getCreatorProfile();
+        if (user.isCreator() && creatorProfile != null) {
+            CreatorSummary.CreatorSummaryBuilder creator = CreatorSummary.builder()
+                    .creatorName(creatorProfile.getCreatorName())
+                    .category(creatorProfile.getCategory())
+                    .description(creatorProfile.getDescription())
+                    .subscriptionPrice(creatorProfile.getSubscriptionPrice())
+                    .currency(creatorProfile.getCurrency())
+                    .verified(creatorProfile.getIsVerified());
+            CreatorStatistics statistics = creatorProfile.getStatistics();
+            if (statistics != null) {
+                creator.subscriberCount(showSubscriberCount ? statistics.getSubscriberCount() : null)
+                        .contentCount(statistics.getContentCount())
+                        .likeCount(statistics.getLikeCount())
+                        .averageRating(statistics.getAverageRating());
+            }
+            builder.creator(creator.build());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.learn.desifans_user_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A typeahead match: just enough to render one line of a suggestion list
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Suggestion {
+
+    private String id;
+    private String username;
+    private String displayName;
+    private String creatorName;
+    private String profilePicture;
+}
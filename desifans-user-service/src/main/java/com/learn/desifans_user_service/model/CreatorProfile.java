@@ -1,5 +1,8 @@
 package com.learn.desifans_user_service.model;
 
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -10,6 +13,8 @@ public class CreatorProfile {
     private String creatorName;
     private String category;
     private String description;
+    // Decimal128 rather than the default string, so price ranges compare numerically
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal subscriptionPrice;
     private String currency;
     private boolean isVerified;
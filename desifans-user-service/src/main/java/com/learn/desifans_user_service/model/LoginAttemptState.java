@@ -0,0 +1,13 @@
+package com.learn.desifans_user_service.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Failed-login counter and lockout of a user, read without loading the full document
+ */
+public record LoginAttemptState(int failedLoginAttempts, LocalDateTime lockoutUntil) {
+
+    public boolean isLocked() {
+        return lockoutUntil != null && lockoutUntil.isAfter(LocalDateTime.now());
+    }
+}
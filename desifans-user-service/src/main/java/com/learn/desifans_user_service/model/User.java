@@ -3,6 +3,8 @@ package com.learn.desifans_user_service.model;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -15,6 +17,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "users")
+@CompoundIndexes({
+    // Keyset-paged listings: equality filters, then the sort field, then _id as tie-breaker
+    @CompoundIndex(name = "role_status_createdAt", def = "{'role': 1, 'status': 1, 'createdAt': -1, '_id': 1}"),
+    @CompoundIndex(name = "role_status_subscribers",
+            def = "{'role': 1, 'status': 1, 'creatorProfile.statistics.subscriberCount': -1, '_id': 1}"),
+    @CompoundIndex(name = "category_role_status_createdAt",
+            def = "{'creatorProfile.category': 1, 'role': 1, 'status': 1, 'createdAt': -1, '_id': 1}"),
+    @CompoundIndex(name = "category_role_status_subscribers",
+            def = "{'creatorProfile.category': 1, 'role': 1, 'status': 1, 'creatorProfile.statistics.subscriberCount': -1, '_id': 1}"),
+    @CompoundIndex(name = "verified_role_status_subscribers",
+            def = "{'creatorProfile.isVerified': 1, 'role': 1, 'status': 1, 'creatorProfile.statistics.subscriberCount': -1, '_id': 1}"),
+    @CompoundIndex(name = "role_status_price",
+            def = "{'role': 1, 'status': 1, 'creatorProfile.subscriptionPrice': 1, '_id': 1}")
+})
 public class User {
     
     @Id
@@ -64,6 +80,12 @@ public class User {
     
     private LocalDateTime lastActiveAt;
     
+    // Normalized name tokens for search, derived on every save
+    private List<String> searchTokens;
+    
+    // Leading fragments of the search tokens, so "desi" finds "desifan"
+    private List<String> searchPrefixes;
+    
     // Constructors
     public User() {
         this.status = UserStatus.PENDING_VERIFICATION;
@@ -228,4 +250,20 @@ public class User {
     public void setLastActiveAt(LocalDateTime lastActiveAt) {
         this.lastActiveAt = lastActiveAt;
     }
+    
+    public List<String> getSearchTokens() {
+        return searchTokens;
+    }
+    
+    public void setSearchTokens(List<String> searchTokens) {
+        this.searchTokens = searchTokens;
+    }
+    
+    public List<String> getSearchPrefixes() {
+        return searchPrefixes;
+    }
+    
+    public void setSearchPrefixes(List<String> searchPrefixes) {
+        this.searchPrefixes = searchPrefixes;
+    }
 }
@@ -0,0 +1,7 @@
+package com.learn.desifans_user_service.model;
+
+/**
+ * A projected user matched by search, with its text relevance score
+ */
+public record UserSearchHit(User user, double score) {
+}
@@ -2,29 +2,37 @@ package com.learn.desifans_user_service.model;
 
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
+/**
+ * A login session, keyed by the sessionId claim carried in its tokens so refresh and logout
+ * are primary-key lookups. Only SHA-256 digests of the issued tokens are stored.
+ */
 @Document(collection = "user_sessions")
+@CompoundIndex(name = "isActive_lastActivity", def = "{'isActive': 1, 'lastActivity': 1}")
 public class UserSession {
     
+    // Same value as the sessionId claim of the session's tokens
     @Id
     private String id;
     
     @Indexed
     private String userId;
     
-    private String sessionToken;
-    private String accessToken;
+    private String refreshTokenHash;
+    private String accessTokenHash;
     private DeviceInfo deviceInfo;
     private boolean isActive;
     
     @CreatedDate
     private LocalDateTime createdAt;
     
-    @Indexed
+    // TTL index, the same one the init script creates: MongoDB deletes sessions once they expire
+    @Indexed(name = "expiresAt_1", expireAfterSeconds = 0)
     private LocalDateTime expiresAt;
     
     private LocalDateTime lastActivity;
@@ -35,13 +43,17 @@ public class UserSession {
         this.lastActivity = LocalDateTime.now();
     }
     
-    public UserSession(String userId, String sessionToken, String accessToken, DeviceInfo deviceInfo, LocalDateTime expiresAt) {
+    public UserSession(String id, String userId, String refreshTokenHash, String accessTokenHash, 
+                       DeviceInfo deviceInfo, LocalDateTime expiresAt) {
         this();
+        this.id = id;
         this.userId = userId;
-        this.sessionToken = sessionToken;
-        this.accessToken = accessToken;
+        this.refreshTokenHash = refreshTokenHash;
+        this.accessTokenHash = accessTokenHash;
         this.deviceInfo = deviceInfo;
         this.expiresAt = expiresAt;
+        // Assigned ids make auditing treat the session as existing, so stamp creation here
+        this.createdAt = this.lastActivity;
     }
     
     // Helper methods
@@ -70,20 +82,20 @@ public class UserSession {
         this.userId = userId;
     }
     
-    public String getSessionToken() {
-        return sessionToken;
+    public String getRefreshTokenHash() {
+        return refreshTokenHash;
     }
     
-    public void setSessionToken(String sessionToken) {
-        this.sessionToken = sessionToken;
+    public void setRefreshTokenHash(String refreshTokenHash) {
+        this.refreshTokenHash = refreshTokenHash;
     }
     
-    public String getAccessToken() {
-        return accessToken;
+    public String getAccessTokenHash() {
+        return accessTokenHash;
     }
     
-    public void setAccessToken(String accessToken) {
-        this.accessToken = accessToken;
+    public void setAccessTokenHash(String accessTokenHash) {
+        this.accessTokenHash = accessTokenHash;
     }
     
     public DeviceInfo getDeviceInfo() {
@@ -3,8 +3,6 @@ package com.learn.desifans_user_service.repository;
 import com.learn.desifans_user_service.model.User;
 import com.learn.desifans_user_service.model.UserRole;
 import com.learn.desifans_user_service.model.UserStatus;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -14,7 +12,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     
     // Basic CRUD operations
     Optional<User> findByEmail(String email);
@@ -32,34 +30,19 @@ public interface UserRepository extends MongoRepository<User, String> {
     
     List<User> findByRole(UserRole role);
     
-    @Query("{'role': ?0, 'status': ?1}")
-    Page<User> findByRoleAndStatus(UserRole role, UserStatus status, Pageable pageable);
+    // Totals for the keyset-paged listings in UserRepositoryCustom, only run when asked for
+    long countByRoleAndStatus(UserRole role, UserStatus status);
     
     // Creator specific queries
-    @Query("{'role': 'CREATOR', 'status': 'ACTIVE', 'creatorProfile.category': ?0}")
-    Page<User> findActiveCreatorsByCategory(String category, Pageable pageable);
+    @Query(value = "{'role': 'CREATOR', 'status': 'ACTIVE', 'creatorProfile.category': ?0}", count = true)
+    long countActiveCreatorsByCategory(String category);
     
-    @Query("{'role': 'CREATOR', 'status': 'ACTIVE', 'creatorProfile.isVerified': true}")
-    Page<User> findVerifiedCreators(Pageable pageable);
+    @Query(value = "{'role': 'CREATOR', 'status': 'ACTIVE', 'creatorProfile.isVerified': true}", count = true)
+    long countVerifiedCreators();
     
     @Query("{'role': 'CREATOR', 'creatorProfile.verificationStatus': 'PENDING'}")
     List<User> findCreatorsPendingVerification();
     
-    // Search functionality
-    @Query("{'$or': ["
-            + "{'username': {'$regex': ?0, '$options': 'i'}}, "
-            + "{'profile.displayName': {'$regex': ?0, '$options': 'i'}}, "
-            + "{'creatorProfile.creatorName': {'$regex': ?0, '$options': 'i'}}"
-            + "], 'status': 'ACTIVE'}")
-    Page<User> searchActiveUsers(String searchTerm, Pageable pageable);
-    
-    @Query("{'role': 'CREATOR', 'status': 'ACTIVE', '$or': ["
-            + "{'username': {'$regex': ?0, '$options': 'i'}}, "
-            + "{'creatorProfile.creatorName': {'$regex': ?0, '$options': 'i'}}, "
-            + "{'creatorProfile.category': {'$regex': ?0, '$options': 'i'}}"
-            + "]}")
-    Page<User> searchActiveCreators(String searchTerm, Pageable pageable);
-    
     // Activity and analytics
     @Query("{'lastActiveAt': {'$gte': ?0}}")
     List<User> findActiveUsersSince(LocalDateTime since);
@@ -82,8 +65,7 @@ public interface UserRepository extends MongoRepository<User, String> {
     List<User> findCurrentlyLockedUsers(LocalDateTime now);
     
     // Subscription related (for creators)
-    @Query("{'role': 'CREATOR', 'status': 'ACTIVE', 'creatorProfile.subscriptionPrice': {'$gte': ?0, '$lte': ?1}}")
-    Page<User> findCreatorsByPriceRange(double minPrice, double maxPrice, Pageable pageable);
+    // Price range queries live in UserRepositoryCustom, where bounds are bound as Decimal128
     
     // Custom aggregation queries would go here for complex statistics
     
@@ -0,0 +1,110 @@
+package com.learn.desifans_user_service.repository;
+
+import com.learn.desifans_user_service.model.LoginAttemptState;
+import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.model.UserRole;
+import com.learn.desifans_user_service.model.UserSearchHit;
+import com.learn.desifans_user_service.model.UserStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Targeted reads and writes on the users collection that derived queries cannot express.
+ * Users returned by the projection methods are partial and must never be passed to save().
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Load only the fields needed to authenticate a user and issue tokens
+     */
+    Optional<User> findLoginViewByEmailOrUsername(String loginIdentifier);
+
+    /**
+     * Load only the fields needed to issue tokens for an existing session
+     */
+    Optional<User> findTokenViewById(String userId);
+
+    /**
+     * Load only the fields of a public profile, for users whose profile is visible
+     */
+    Optional<User> findPublicProfileViewById(String userId);
+
+    /**
+     * Load the public-profile fields of many visible users in one query, in no particular order
+     */
+    List<User> findPublicProfileViewsByIds(Collection<String> userIds);
+
+    /**
+     * Record a successful login with a single $set, optionally replacing the password hash
+     */
+    void recordSuccessfulLogin(String userId, LocalDateTime loginAt, String newPasswordHash);
+
+    /**
+     * Atomically count a failed login and lock the account once {@code maxAttempts} is reached.
+     * The count restarts once an earlier lockout has passed. Returns the state after the update,
+     * read in the same round trip.
+     */
+    Optional<LoginAttemptState> registerFailedLogin(String userId, int maxAttempts, LocalDateTime lockoutUntil);
+
+    /**
+     * Raise lastActiveAt of many users with one unordered bulk write of $max updates
+     */
+    void touchLastActiveAt(Map<String, LocalDateTime> lastActiveAtByUserId);
+
+    /**
+     * Match active users (or only creators) against normalized search tokens through the
+     * text index, best match first and then by id. Returns public-profile projections
+     * positioned after {@code after} when it is given.
+     */
+    List<UserSearchHit> searchActive(List<String> tokens, boolean creatorsOnly, KeysetCursor after, int limit);
+
+    /**
+     * Count what {@link #searchActive} matches, for callers that ask for a total
+     */
+    long countSearchMatches(List<String> tokens, boolean creatorsOnly);
+
+    /*
+     * Keyset-paged listings. Each returns up to {@code limit} public-profile projections that
+     * come after {@code after} in the given order (the first page when it is null), so every
+     * page costs one index range scan however deep it is.
+     */
+
+    List<User> findByRoleAndStatus(UserRole role, UserStatus status, UserSort sort, KeysetCursor after, int limit);
+
+    List<User> findActiveCreatorsByCategory(String category, UserSort sort, KeysetCursor after, int limit);
+
+    List<User> findVerifiedCreators(UserSort sort, KeysetCursor after, int limit);
+
+    /**
+     * Active creators priced within the range, cheapest first
+     */
+    List<User> findCreatorsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, KeysetCursor after, int limit);
+
+    long countCreatorsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
+
+    /**
+     * Stream users saved before search prefixes existed, projected on the fields tokens come from
+     */
+    Stream<User> streamUsersWithoutSearchPrefixes();
+
+    /**
+     * Stream every active user projected on the fields typeahead suggestions show and rank by
+     */
+    Stream<User> streamSuggestionViews();
+
+    /**
+     * Stream every active creator projected on the fields creator rankings are scored from
+     */
+    Stream<User> streamRankableCreators();
+
+    /**
+     * Write the search tokens and prefixes of many users with one unordered bulk write
+     */
+    void setSearchFields(List<User> users);
+}
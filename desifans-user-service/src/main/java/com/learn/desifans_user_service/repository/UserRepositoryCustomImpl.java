@@ -0,0 +1,310 @@
+package com.learn.desifans_user_service.repository;
+
+import com.learn.desifans_user_service.model.LoginAttemptState;
+import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.model.UserRole;
+import com.learn.desifans_user_service.model.UserSearchHit;
+import com.learn.desifans_user_service.model.UserStatus;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    // Everything token generation and the login response read from a User
+    private static final String[] TOKEN_FIELDS = {
+            "username", "email", "role", "status", "emailVerified",
+            "profile.displayName", "profile.profilePicture",
+            "creatorProfile.isVerified"
+    };
+
+    // Everything PublicProfile reads from a User
+    private static final String[] PUBLIC_PROFILE_FIELDS = {
+            "username", "role",
+            "profile.displayName", "profile.bio", "profile.profilePicture", "profile.bannerImage",
+            "profile.location", "profile.website", "profile.socialLinks", "profile.isVerified",
+            "profile.preferences.privacySettings.showSubscriberCount",
+            "creatorProfile.creatorName", "creatorProfile.category", "creatorProfile.description",
+            "creatorProfile.subscriptionPrice", "creatorProfile.currency", "creatorProfile.isVerified",
+            "creatorProfile.statistics.subscriberCount", "creatorProfile.statistics.contentCount",
+            "creatorProfile.statistics.likeCount", "creatorProfile.statistics.averageRating"
+    };
+
+    private static final String SEARCH_TOKENS_FIELD = "searchTokens";
+    private static final String SEARCH_PREFIXES_FIELD = "searchPrefixes";
+    private static final String SCORE_FIELD = "score";
+
+    private static final String FAILED_ATTEMPTS_FIELD = "security.failedLoginAttempts";
+    private static final String LOCKOUT_UNTIL_FIELD = "security.lockoutUntil";
+    private static final Document LOGIN_ATTEMPT_PROJECTION = new Document(FAILED_ATTEMPTS_FIELD, 1)
+            .append(LOCKOUT_UNTIL_FIELD, 1);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<User> findLoginViewByEmailOrUsername(String loginIdentifier) {
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("email").is(loginIdentifier),
+                Criteria.where("username").is(loginIdentifier)));
+        query.fields()
+                .include(TOKEN_FIELDS)
+                .include("passwordHash", "security.failedLoginAttempts", "security.lockoutUntil");
+        return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+    }
+
+    @Override
+    public Optional<User> findTokenViewById(String userId) {
+        Query query = new Query(Criteria.where("_id").is(userId));
+        query.fields().include(TOKEN_FIELDS);
+        return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+    }
+
+    @Override
+    public Optional<User> findPublicProfileViewById(String userId) {
+        Query query = new Query(Criteria.where("_id").is(userId)
+                .and("status").nin(UserStatus.SUSPENDED, UserStatus.DELETED));
+        query.fields().include(PUBLIC_PROFILE_FIELDS);
+        return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+    }
+
+    @Override
+    public List<User> findPublicProfileViewsByIds(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        Query query = new Query(Criteria.where("_id").in(userIds)
+                .and("status").nin(UserStatus.SUSPENDED, UserStatus.DELETED));
+        query.fields().include(PUBLIC_PROFILE_FIELDS);
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public void recordSuccessfulLogin(String userId, LocalDateTime loginAt, String newPasswordHash) {
+        Update update = new Update()
+                .set("security.lastLogin", loginAt)
+                .set("security.failedLoginAttempts", 0)
+                .unset("security.lockoutUntil")
+                .set("lastActiveAt", loginAt);
+        if (newPasswordHash != null) {
+            update.set("passwordHash", newPasswordHash);
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(userId)), update, User.class);
+    }
+
+    @Override
+    public Optional<LoginAttemptState> registerFailedLogin(String userId, int maxAttempts, LocalDateTime lockoutUntil) {
+        // Two pipeline stages: count first, then lock based on the new count. A lockout that has
+        // passed starts a fresh count, so one more failure does not lock the account again.
+        // The server applies both atomically, so concurrent attempts cannot lose updates.
+        Document lockoutExpired = new Document("$lt", List.of(
+                new Document("$ifNull", List.of("$" + LOCKOUT_UNTIL_FIELD, "$$NOW")), "$$NOW"));
+        List<Document> pipeline = List.of(
+                new Document("$set", new Document(FAILED_ATTEMPTS_FIELD,
+                        new Document("$cond", List.of(
+                                lockoutExpired,
+                                1,
+                                new Document("$add", List.of(
+                                        new Document("$ifNull", List.of("$" + FAILED_ATTEMPTS_FIELD, 0)), 1)))))
+                        .append(LOCKOUT_UNTIL_FIELD,
+                                new Document("$cond", Arrays.asList(lockoutExpired, null, "$" + LOCKOUT_UNTIL_FIELD)))),
+                new Document("$set", new Document(LOCKOUT_UNTIL_FIELD,
+                        new Document("$cond", List.of(
+                                new Document("$gte", List.of("$" + FAILED_ATTEMPTS_FIELD, maxAttempts)),
+                                toDate(lockoutUntil),
+                                "$" + LOCKOUT_UNTIL_FIELD)))));
+
+        Document result = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .findOneAndUpdate(new Document("_id", toObjectId(userId)), pipeline,
+                        new FindOneAndUpdateOptions()
+                                .projection(LOGIN_ATTEMPT_PROJECTION)
+                                .returnDocument(ReturnDocument.AFTER));
+        return Optional.ofNullable(result).map(UserRepositoryCustomImpl::toLoginAttemptState);
+    }
+
+    private static LoginAttemptState toLoginAttemptState(Document document) {
+        Document security = document.get("security", Document.class);
+        if (security == null) {
+            return new LoginAttemptState(0, null);
+        }
+        Integer attempts = security.getInteger("failedLoginAttempts");
+        Date lockoutUntil = security.getDate("lockoutUntil");
+        return new LoginAttemptState(
+                attempts != null ? attempts : 0,
+                lockoutUntil != null ? LocalDateTime.ofInstant(lockoutUntil.toInstant(), ZoneId.systemDefault()) : null);
+    }
+
+    // Same conversion Spring Data applies to LocalDateTime fields
+    private static Date toDate(LocalDateTime value) {
+        return Date.from(value.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    @Override
+    public void touchLastActiveAt(Map<String, LocalDateTime> lastActiveAtByUserId) {
+        if (lastActiveAtByUserId.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        lastActiveAtByUserId.forEach((userId, lastActiveAt) -> bulk.updateOne(
+                new Query(Criteria.where("_id").is(userId)),
+                new Update().max("lastActiveAt", lastActiveAt)));
+        bulk.execute();
+    }
+
+    @Override
+    public List<UserSearchHit> searchActive(List<String> tokens, boolean creatorsOnly, KeysetCursor after, int limit) {
+        Document match = searchFilter(tokens, creatorsOnly);
+        Document projection = new Document(SCORE_FIELD, new Document("$meta", "textScore"));
+        for (String field : PUBLIC_PROFILE_FIELDS) {
+            projection.append(field, 1);
+        }
+
+        List<Document> pipeline = new ArrayList<>();
+        pipeline.add(new Document("$match", match));
+        pipeline.add(new Document("$project", projection));
+        if (after != null) {
+            double score = after.sortValueAsDouble();
+            Object id = toObjectId(after.id());
+            pipeline.add(new Document("$match", new Document("$or", List.of(
+                    new Document(SCORE_FIELD, new Document("$lt", score)),
+                    new Document(SCORE_FIELD, score).append("_id", new Document("$gt", id))))));
+        }
+        pipeline.add(new Document("$sort", new Document(SCORE_FIELD, -1).append("_id", 1)));
+        pipeline.add(new Document("$limit", limit));
+
+        MongoConverter converter = mongoTemplate.getConverter();
+        List<UserSearchHit> hits = new ArrayList<>(limit);
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .aggregate(pipeline)
+                .forEach(document -> hits.add(new UserSearchHit(
+                        converter.read(User.class, document),
+                        document.getDouble(SCORE_FIELD))));
+        return hits;
+    }
+
+    private static Document searchFilter(List<String> tokens, boolean creatorsOnly) {
+        // language "none" matches the index: whole tokens, no stemming or stop words
+        Document filter = new Document("$text", new Document("$search", String.join(" ", tokens))
+                .append("$language", "none"))
+                .append("status", UserStatus.ACTIVE.name());
+        if (creatorsOnly) {
+            filter.append("role", UserRole.CREATOR.name());
+        }
+        return filter;
+    }
+
+    @Override
+    public long countSearchMatches(List<String> tokens, boolean creatorsOnly) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .countDocuments(searchFilter(tokens, creatorsOnly));
+    }
+
+    @Override
+    public List<User> findByRoleAndStatus(UserRole role, UserStatus status, UserSort sort, KeysetCursor after, int limit) {
+        return findPage(Criteria.where("role").is(role).and("status").is(status), sort, after, limit);
+    }
+
+    @Override
+    public List<User> findActiveCreatorsByCategory(String category, UserSort sort, KeysetCursor after, int limit) {
+        return findPage(activeCreators().and("creatorProfile.category").is(category), sort, after, limit);
+    }
+
+    @Override
+    public List<User> findVerifiedCreators(UserSort sort, KeysetCursor after, int limit) {
+        return findPage(activeCreators().and("creatorProfile.isVerified").is(true), sort, after, limit);
+    }
+
+    @Override
+    public List<User> findCreatorsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, KeysetCursor after, int limit) {
+        return findPage(priceRange(minPrice, maxPrice), UserSort.PRICE, after, limit);
+    }
+
+    @Override
+    public long countCreatorsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return mongoTemplate.count(new Query(priceRange(minPrice, maxPrice)), User.class);
+    }
+
+    private static Criteria priceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return activeCreators().and(UserSort.PRICE.field())
+                .gte(new Decimal128(minPrice))
+                .lte(new Decimal128(maxPrice));
+    }
+
+    private static Criteria activeCreators() {
+        return Criteria.where("role").is(UserRole.CREATOR).and("status").is(UserStatus.ACTIVE);
+    }
+
+    private List<User> findPage(Criteria filter, UserSort sort, KeysetCursor after, int limit) {
+        Query query = new Query(after != null ? new Criteria().andOperator(filter, sort.after(after)) : filter)
+                .with(sort.toSort())
+                .limit(limit);
+        query.fields().include(PUBLIC_PROFILE_FIELDS).include(sort.field());
+        return mongoTemplate.find(query, User.class);
+    }
+
+    @Override
+    public Stream<User> streamUsersWithoutSearchPrefixes() {
+        Query query = new Query(Criteria.where(SEARCH_PREFIXES_FIELD).exists(false));
+        query.fields().include("username", "role", "profile.displayName",
+                "creatorProfile.creatorName", "creatorProfile.category");
+        query.cursorBatchSize(500);
+        return mongoTemplate.stream(query, User.class);
+    }
+
+    @Override
+    public Stream<User> streamSuggestionViews() {
+        Query query = new Query(Criteria.where("status").is(UserStatus.ACTIVE));
+        query.fields().include("username", "role", "status", "profile.displayName", "profile.profilePicture",
+                "creatorProfile.creatorName", "creatorProfile.statistics.subscriberCount");
+        query.cursorBatchSize(1000);
+        return mongoTemplate.stream(query, User.class);
+    }
+
+    @Override
+    public Stream<User> streamRankableCreators() {
+        Query query = new Query(activeCreators());
+        query.fields().include("role", "status", "creatorProfile.category",
+                "creatorProfile.statistics.subscriberCount", "creatorProfile.statistics.likeCount",
+                "creatorProfile.statistics.viewCount", "creatorProfile.statistics.averageRating");
+        query.cursorBatchSize(1000);
+        return mongoTemplate.stream(query, User.class);
+    }
+
+    @Override
+    public void setSearchFields(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        users.forEach(user -> bulk.updateOne(
+                new Query(Criteria.where("_id").is(user.getId())),
+                new Update().set(SEARCH_TOKENS_FIELD, user.getSearchTokens())
+                        .set(SEARCH_PREFIXES_FIELD, user.getSearchPrefixes())));
+        bulk.execute();
+    }
+}
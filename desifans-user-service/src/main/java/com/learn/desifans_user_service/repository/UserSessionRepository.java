@@ -7,18 +7,13 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface UserSessionRepository extends MongoRepository<UserSession, String> {
+public interface UserSessionRepository extends MongoRepository<UserSession, String>, UserSessionRepositoryCustom {
     
     // Basic session operations
     List<UserSession> findByUserIdAndIsActive(String userId, boolean isActive);
     
-    Optional<UserSession> findBySessionToken(String sessionToken);
-    
-    Optional<UserSession> findByAccessToken(String accessToken);
-    
     // Session management
     @Query("{'userId': ?0, 'isActive': true}")
     List<UserSession> findActiveSessionsByUserId(String userId);
@@ -33,6 +28,8 @@ public interface UserSessionRepository extends MongoRepository<UserSession, Stri
     @Query("{'isActive': false, 'lastActivity': {'$lte': ?0}}")
     List<UserSession> findInactiveSessionsOlderThan(LocalDateTime cutoffDate);
     
+    long countByIsActiveAndLastActivityLessThanEqual(boolean isActive, LocalDateTime cutoffDate);
+    
     // Device tracking
     @Query("{'userId': ?0, 'deviceInfo.ipAddress': ?1, 'isActive': true}")
     List<UserSession> findActiveSessionsByUserIdAndIp(String userId, String ipAddress);
@@ -48,7 +45,4 @@ public interface UserSessionRepository extends MongoRepository<UserSession, Stri
     void deleteByUserId(String userId);
     
     void deleteByUserIdAndIsActive(String userId, boolean isActive);
-    
-    @Query(value = "{'sessionToken': ?0}", delete = true)
-    void deleteBySessionToken(String sessionToken);
 }
@@ -0,0 +1,59 @@
+package com.learn.desifans_user_service.repository;
+
+import com.learn.desifans_user_service.model.UserSession;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Targeted writes on the user_sessions collection
+ */
+public interface UserSessionRepositoryCustom {
+
+    /**
+     * Store the digest of the newly issued access token and touch lastActivity with a single $set
+     */
+    void recordRefresh(String id, String accessTokenHash, LocalDateTime refreshedAt);
+
+    /**
+     * Mark a session inactive by id without loading it
+     */
+    void deactivate(String id);
+
+    /**
+     * Mark several sessions inactive with one update
+     */
+    void deactivateAll(Collection<String> ids);
+
+    /**
+     * Mark every active session of a user inactive with one update
+     */
+    void deactivateAllForUser(String userId);
+
+    /**
+     * Insert or update many sessions with one unordered bulk write. lastActivity only moves forward.
+     */
+    void upsertAll(Collection<UserSession> sessions);
+
+    /**
+     * Raise lastActivity of many sessions with one unordered bulk write of $max updates
+     */
+    void touchLastActivity(Map<String, LocalDateTime> lastActivityBySessionId);
+
+    /**
+     * Copy sessions into the archive collection server-side, replacing earlier copies
+     */
+    void archiveAll(Collection<String> ids);
+
+    /**
+     * Ids of sessions inactive since before the cutoff, streamed with the given cursor batch size
+     */
+    Stream<UserSession> streamInactiveSessionIds(LocalDateTime cutoff, int batchSize);
+
+    /**
+     * Ids and owners of active sessions idle since before the cutoff, streamed with the given cursor batch size
+     */
+    Stream<UserSession> streamStaleActiveSessions(LocalDateTime cutoff, int batchSize);
+}
@@ -0,0 +1,125 @@
+package com.learn.desifans_user_service.repository;
+
+import com.learn.desifans_user_service.model.UserSession;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class UserSessionRepositoryCustomImpl implements UserSessionRepositoryCustom {
+
+    private static final String LAST_ACTIVITY_FIELD = "lastActivity";
+    private static final String ARCHIVE_COLLECTION = "user_sessions_archive";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void recordRefresh(String id, String accessTokenHash, LocalDateTime refreshedAt) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)),
+                new Update()
+                        .set("accessTokenHash", accessTokenHash)
+                        .set("lastActivity", refreshedAt),
+                UserSession.class);
+    }
+
+    @Override
+    public void deactivate(String id) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)),
+                new Update().set("isActive", false),
+                UserSession.class);
+    }
+
+    @Override
+    public void deactivateAll(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)),
+                new Update().set("isActive", false),
+                UserSession.class);
+    }
+
+    @Override
+    public void deactivateAllForUser(String userId) {
+        mongoTemplate.updateMulti(new Query(Criteria.where("userId").is(userId).and("isActive").is(true)),
+                new Update().set("isActive", false),
+                UserSession.class);
+    }
+
+    @Override
+    public void upsertAll(Collection<UserSession> sessions) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserSession.class);
+        sessions.forEach(session -> {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(session, document);
+
+            // $max on lastActivity so a snapshot never undoes a newer activity flush
+            Update update = new Update();
+            document.forEach((field, value) -> {
+                if (LAST_ACTIVITY_FIELD.equals(field)) {
+                    update.max(field, value);
+                } else if (!"_id".equals(field)) {
+                    update.set(field, value);
+                }
+            });
+            bulk.upsert(new Query(Criteria.where("_id").is(session.getId())), update);
+        });
+        bulk.execute();
+    }
+
+    @Override
+    public void touchLastActivity(Map<String, LocalDateTime> lastActivityBySessionId) {
+        if (lastActivityBySessionId.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserSession.class);
+        lastActivityBySessionId.forEach((sessionId, lastActivity) -> bulk.updateOne(
+                new Query(Criteria.where("_id").is(sessionId)),
+                new Update().max(LAST_ACTIVITY_FIELD, lastActivity)));
+        bulk.execute();
+    }
+
+    @Override
+    public void archiveAll(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("_id").in(ids)),
+                Aggregation.merge()
+                        .intoCollection(ARCHIVE_COLLECTION)
+                        .whenMatched(MergeOperation.WhenDocumentsMatch.replaceDocument())
+                        .build());
+        mongoTemplate.aggregate(aggregation, UserSession.class, Document.class);
+    }
+
+    @Override
+    public Stream<UserSession> streamInactiveSessionIds(LocalDateTime cutoff, int batchSize) {
+        Query query = new Query(Criteria.where("isActive").is(false).and(LAST_ACTIVITY_FIELD).lte(cutoff))
+                .cursorBatchSize(batchSize);
+        query.fields().include("_id");
+        return mongoTemplate.stream(query, UserSession.class);
+    }
+
+    @Override
+    public Stream<UserSession> streamStaleActiveSessions(LocalDateTime cutoff, int batchSize) {
+        Query query = new Query(Criteria.where(LAST_ACTIVITY_FIELD).lte(cutoff).and("isActive").is(true))
+                .cursorBatchSize(batchSize);
+        query.fields().include("_id", "userId");
+        return mongoTemplate.stream(query, UserSession.class);
+    }
+}
@@ -0,0 +1,128 @@
+package com.learn.desifans_user_service.repository;
+
+import com.learn.desifans_user_service.model.CreatorProfile;
+import com.learn.desifans_user_service.model.User;
+import org.bson.types.Decimal128;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Orders a keyset-paged user listing supports. Each order is its sort field followed by _id,
+ * which makes every position unique so a cursor can say exactly where the next page starts.
+ *
+ * A missing sort value is carried in the cursor as an empty string. MongoDB sorts missing and
+ * null values lowest, so those documents come last in descending orders and first in ascending
+ * ones, and {@link #after} pages through them by _id.
+ */
+public enum UserSort {
+
+    NEWEST("createdAt", Sort.Direction.DESC) {
+        @Override
+        String cursorValue(User user) {
+            LocalDateTime createdAt = user.getCreatedAt();
+            return createdAt != null
+                    ? String.valueOf(createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                    : null;
+        }
+
+        @Override
+        Object queryValue(String cursorValue) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(cursorValue)), ZoneId.systemDefault());
+        }
+    },
+
+    POPULAR("creatorProfile.statistics.subscriberCount", Sort.Direction.DESC) {
+        @Override
+        String cursorValue(User user) {
+            CreatorProfile creatorProfile = user.getCreatorProfile();
+            return creatorProfile != null && creatorProfile.getStatistics() != null
+                    ? String.valueOf(creatorProfile.getStatistics().getSubscriberCount())
+                    : null;
+        }
+
+        @Override
+        Object queryValue(String cursorValue) {
+            return Long.parseLong(cursorValue);
+        }
+    },
+
+    PRICE("creatorProfile.subscriptionPrice", Sort.Direction.ASC) {
+        @Override
+        String cursorValue(User user) {
+            CreatorProfile creatorProfile = user.getCreatorProfile();
+            return creatorProfile != null && creatorProfile.getSubscriptionPrice() != null
+                    ? creatorProfile.getSubscriptionPrice().toPlainString()
+                    : null;
+        }
+
+        @Override
+        Object queryValue(String cursorValue) {
+            return new Decimal128(new BigDecimal(cursorValue));
+        }
+    };
+
+    private static final String MISSING = "";
+
+    private final String field;
+    private final Sort.Direction direction;
+
+    UserSort(String field, Sort.Direction direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+
+    public String field() {
+        return field;
+    }
+
+    /**
+     * The sort field then _id ascending as the tie-breaker
+     */
+    public Sort toSort() {
+        return Sort.by(direction, field).and(Sort.by(Sort.Direction.ASC, "_id"));
+    }
+
+    /**
+     * The cursor pointing just past {@code user} in this order
+     */
+    public KeysetCursor cursorAfter(User user) {
+        String value = cursorValue(user);
+        return new KeysetCursor(value != null ? value : MISSING, user.getId());
+    }
+
+    /**
+     * Matches the documents that come after the cursor in this order
+     */
+    Criteria after(KeysetCursor cursor) {
+        Criteria missingAfterCursor = Criteria.where(field).is(null).and("_id").gt(cursor.id());
+        if (MISSING.equals(cursor.sortValue())) {
+            // Missing values sort lowest: last when descending, before every value when ascending
+            return direction == Sort.Direction.DESC
+                    ? missingAfterCursor
+                    : new Criteria().orOperator(Criteria.where(field).ne(null), missingAfterCursor);
+        }
+
+        Object value;
+        try {
+            value = queryValue(cursor.sortValue());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        Criteria tie = Criteria.where(field).is(value).and("_id").gt(cursor.id());
+        return direction == Sort.Direction.DESC
+                ? new Criteria().orOperator(Criteria.where(field).lt(value), tie, Criteria.where(field).is(null))
+                : new Criteria().orOperator(Criteria.where(field).gt(value), tie);
+    }
+
+    /**
+     * Sort value of {@code user} as written to a cursor, or null if the user has none
+     */
+    abstract String cursorValue(User user);
+
+    abstract Object queryValue(String cursorValue);
+}
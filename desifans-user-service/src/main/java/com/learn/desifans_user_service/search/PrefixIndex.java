@@ -0,0 +1,175 @@
+package com.learn.desifans_user_service.search;
+
+import com.learn.desifans_user_service.dto.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable prefix index over normalized name keys, answering "best-scored entries whose key
+ * starts with this prefix".
+ *
+ * Keys are kept in one sorted array, so the keys sharing a prefix form a contiguous range
+ * found by two binary searches. A segment tree over that array holds, for every interval,
+ * the position of its highest-scored key; the best entries of a range are pulled one at a
+ * time from a heap of sub-ranges, each split around its maximum. A lookup costs
+ * O(log n) per returned entry however many keys share the prefix.
+ */
+final class PrefixIndex {
+
+    static final PrefixIndex EMPTY = new Builder().build();
+
+    private final String[] keys;
+    private final int[] entryOfKey;
+    private final Suggestion[] entries;
+    private final long[] scores;
+    private final int leafOffset;
+    private final int[] tree;
+
+    private PrefixIndex(String[] keys, int[] entryOfKey, Suggestion[] entries, long[] scores) {
+        this.keys = keys;
+        this.entryOfKey = entryOfKey;
+        this.entries = entries;
+        this.scores = scores;
+
+        int size = 1;
+        while (size < Math.max(1, keys.length)) {
+            size <<= 1;
+        }
+        this.leafOffset = size;
+        this.tree = new int[2 * size];
+        Arrays.fill(tree, -1);
+        for (int i = 0; i < keys.length; i++) {
+            tree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            tree[node] = better(tree[2 * node], tree[2 * node + 1]);
+        }
+    }
+
+    int size() {
+        return entries.length;
+    }
+
+    /**
+     * Up to {@code limit} distinct entries with a key starting with {@code prefix}, highest
+     * score first, leaving out entries whose id {@code skip} accepts
+     */
+    List<ScoredSuggestion> top(String prefix, int limit, Predicate<String> skip) {
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+        List<ScoredSuggestion> results = new ArrayList<>(limit);
+        if (from >= to) {
+            return results;
+        }
+
+        PriorityQueue<int[]> ranges = new PriorityQueue<>(
+                Comparator.comparingLong((int[] range) -> scoreOf(range[2])).reversed());
+        ranges.add(new int[]{from, to, best(from, to)});
+        Set<Integer> seen = new HashSet<>();
+        while (!ranges.isEmpty() && results.size() < limit) {
+            int[] range = ranges.poll();
+            int position = range[2];
+            int entry = entryOfKey[position];
+            if (seen.add(entry) && !skip.test(entries[entry].getId())) {
+                results.add(new ScoredSuggestion(entries[entry], scores[entry]));
+            }
+            if (range[0] < position) {
+                ranges.add(new int[]{range[0], position, best(range[0], position)});
+            }
+            if (position + 1 < range[1]) {
+                ranges.add(new int[]{position + 1, range[1], best(position + 1, range[1])});
+            }
+        }
+        return results;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Position of the best-scored key in [from, to)
+    private int best(int from, int to) {
+        int result = -1;
+        for (int left = from + leafOffset, right = to + leafOffset; left < right; left >>= 1, right >>= 1) {
+            if ((left & 1) == 1) {
+                result = better(result, tree[left++]);
+            }
+            if ((right & 1) == 1) {
+                result = better(result, tree[--right]);
+            }
+        }
+        return result;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        return scoreOf(b) > scoreOf(a) ? b : a;
+    }
+
+    private long scoreOf(int position) {
+        return scores[entryOfKey[position]];
+    }
+
+    record ScoredSuggestion(Suggestion suggestion, long score) {
+    }
+
+    static final class Builder {
+
+        private final List<Suggestion> entries = new ArrayList<>();
+        private final List<Long> scores = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> keyEntries = new ArrayList<>();
+
+        void add(Suggestion suggestion, long score, List<String> entryKeys) {
+            int entry = entries.size();
+            entries.add(suggestion);
+            scores.add(score);
+            for (String key : entryKeys) {
+                keys.add(key);
+                keyEntries.add(entry);
+            }
+        }
+
+        PrefixIndex build() {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(keys::get));
+
+            String[] sortedKeys = new String[order.length];
+            int[] entryOfKey = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                // Equal strings share one instance, which keeps repeated names cheap
+                sortedKeys[i] = i > 0 && keys.get(order[i]).equals(sortedKeys[i - 1])
+                        ? sortedKeys[i - 1] : keys.get(order[i]);
+                entryOfKey[i] = keyEntries.get(order[i]);
+            }
+            return new PrefixIndex(sortedKeys, entryOfKey,
+                    entries.toArray(new Suggestion[0]),
+                    scores.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.learn.desifans_user_service.search;
+
+import com.learn.desifans_user_service.model.CreatorProfile;
+import com.learn.desifans_user_service.model.User;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns names into the tokens search matches on. Text is decomposed, stripped of accents and
+ * lower-cased, then split on anything that is not a letter or digit, so "José_Díaz" and
+ * "jose diaz" produce the same tokens. Queries go through the same normalization.
+ */
+public final class SearchTokenizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final int MAX_TOKENS = 32;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIXES = 256;
+
+    private SearchTokenizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * The search tokens of a user: username, display name and, for creators, creator name
+     * and category. A username made of several parts is also indexed as one joined token,
+     * so "john_doe" is found by "john", "doe" and "johndoe".
+     */
+    public static List<String> tokensFor(User user) {
+        Set<String> tokens = new LinkedHashSet<>();
+        List<String> usernameTokens = tokenize(user.getUsername());
+        tokens.addAll(usernameTokens);
+        if (usernameTokens.size() > 1) {
+            tokens.addAll(tokenize(String.join("", usernameTokens)));
+        }
+        if (user.getProfile() != null) {
+            tokens.addAll(tokenize(user.getProfile().getDisplayName()));
+        }
+        CreatorProfile creatorProfile = user.getCreatorProfile();
+        if (creatorProfile != null) {
+            tokens.addAll(tokenize(creatorProfile.getCreatorName()));
+            tokens.addAll(tokenize(creatorProfile.getCategory()));
+        }
+        return tokens.stream().limit(MAX_TOKENS).toList();
+    }
+
+    /**
+     * The leading fragments of each token, from two characters up to one short of the whole
+     * token, so a search for "desi" matches "desifan" the way the old substring search did.
+     * Whole tokens are left to {@link #tokensFor}, which the search index weights higher.
+     */
+    public static List<String> prefixesFor(List<String> tokens) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String token : tokens) {
+            for (int length = MIN_PREFIX_LENGTH; length < token.length(); length++) {
+                prefixes.add(token.substring(0, length));
+            }
+        }
+        prefixes.removeAll(tokens);
+        return prefixes.stream().limit(MAX_PREFIXES).toList();
+    }
+
+    /**
+     * Set the search tokens and prefixes of a user from its names
+     */
+    public static void apply(User user) {
+        List<String> tokens = tokensFor(user);
+        user.setSearchTokens(tokens);
+        user.setSearchPrefixes(prefixesFor(tokens));
+    }
+
+    /**
+     * The keys a user is suggested under while typing: every name starting at each of its
+     * words, so "Jane Doe" is found by "ja", "jane d" and "do". A multi-part username is also
+     * keyed as one word, matching how people type it.
+     */
+    public static List<String> suggestionKeys(User user) {
+        Set<String> keys = new LinkedHashSet<>();
+        List<String> usernameTokens = tokenize(user.getUsername());
+        addSuffixKeys(keys, usernameTokens);
+        if (usernameTokens.size() > 1) {
+            keys.add(String.join("", usernameTokens));
+        }
+        if (user.getProfile() != null) {
+            addSuffixKeys(keys, tokenize(user.getProfile().getDisplayName()));
+        }
+        if (user.getCreatorProfile() != null) {
+            addSuffixKeys(keys, tokenize(user.getCreatorProfile().getCreatorName()));
+        }
+        return keys.stream().limit(MAX_TOKENS).toList();
+    }
+
+    /**
+     * Normalize typed text the same way as suggestion keys
+     */
+    public static String normalizePrefix(String text) {
+        return String.join(" ", tokenize(text));
+    }
+
+    private static void addSuffixKeys(Set<String> keys, List<String> tokens) {
+        for (int i = 0; i < tokens.size(); i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+    }
+}
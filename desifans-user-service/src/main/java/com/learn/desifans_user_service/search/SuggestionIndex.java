@@ -0,0 +1,158 @@
+package com.learn.desifans_user_service.search;
+
+import com.learn.desifans_user_service.dto.Suggestion;
+import com.learn.desifans_user_service.model.CreatorProfile;
+import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.repository.UserRepository;
+import com.learn.desifans_user_service.service.UserChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory typeahead over the names of active users, ranked by subscriber count.
+ *
+ * Lookups read an immutable {@link PrefixIndex} snapshot built from a streaming cursor at
+ * startup and then rebuilt on a fixed delay. Users changed through this instance since the
+ * snapshot was taken are held in a small overlay that shadows their snapshot entries, so
+ * edits show up immediately; each rebuild folds the overlay back in. Changes made by other
+ * instances or services (subscriber counts among them) appear with the next rebuild.
+ * Suggestions never touch MongoDB.
+ */
+@Component
+@Slf4j
+public class SuggestionIndex {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final Timer rebuildTimer;
+
+    private volatile PrefixIndex snapshot = PrefixIndex.EMPTY;
+    private final Map<String, Change> changes = new ConcurrentHashMap<>();
+
+    // A user changed since the snapshot; null suggestion means it should no longer appear
+    private record Change(Suggestion suggestion, long score, List<String> keys, long changedAt) {
+    }
+
+    public SuggestionIndex(UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.search.suggest.enabled:true}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.rebuildTimer = Timer.builder("search.suggest.rebuild")
+                .description("Time to rebuild the typeahead index")
+                .register(meterRegistry);
+        Gauge.builder("search.suggest.entries", this, index -> index.snapshot.size())
+                .description("Users in the typeahead snapshot")
+                .register(meterRegistry);
+        Gauge.builder("search.suggest.changes", changes, Map::size)
+                .description("Users changed since the typeahead snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Up to {@code limit} active users whose username, display name or creator name has a
+     * word starting with {@code prefix}, most subscribed first
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = SearchTokenizer.normalizePrefix(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        List<PrefixIndex.ScoredSuggestion> matches =
+                new ArrayList<>(snapshot.top(normalized, limit, changes::containsKey));
+        changes.values().forEach(change -> {
+            if (change.suggestion() != null
+                    && change.keys().stream().anyMatch(key -> key.startsWith(normalized))) {
+                matches.add(new PrefixIndex.ScoredSuggestion(change.suggestion(), change.score()));
+            }
+        });
+        return matches.stream()
+                .sorted(Comparator.comparingLong(PrefixIndex.ScoredSuggestion::score).reversed())
+                .limit(limit)
+                .map(PrefixIndex.ScoredSuggestion::suggestion)
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${app.search.suggest.rebuild-interval:300000}",
+               fixedDelayString = "${app.search.suggest.rebuild-interval:300000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        try {
+            PrefixIndex rebuilt = rebuildTimer.recordCallable(this::load);
+            snapshot = rebuilt;
+            // Changes made while loading may be missing from the snapshot, so they stay
+            changes.values().removeIf(change -> change.changedAt() < startedAt);
+            log.debug("Typeahead index rebuilt with {} users", rebuilt.size());
+        } catch (Exception e) {
+            log.warn("Typeahead index rebuild failed, keeping the previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private PrefixIndex load() {
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        try (Stream<User> users = userRepository.streamSuggestionViews()) {
+            users.forEach(user -> builder.add(toSuggestion(user), scoreOf(user), SearchTokenizer.suggestionKeys(user)));
+        }
+        return builder.build();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        User user = event.user();
+        if (!enabled || user.getId() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (user.isActive()) {
+            changes.put(user.getId(), new Change(toSuggestion(user), scoreOf(user), SearchTokenizer.suggestionKeys(user), now));
+        } else {
+            changes.put(user.getId(), new Change(null, 0, List.of(), now));
+        }
+    }
+
+    private static Suggestion toSuggestion(User user) {
+        Suggestion.SuggestionBuilder suggestion = Suggestion.builder()
+                .id(user.getId())
+                .username(user.getUsername());
+        if (user.getProfile() != null) {
+            suggestion.displayName(user.getProfile().getDisplayName())
+                    .profilePicture(user.getProfile().getProfilePicture());
+        }
+        if (user.isCreator() && user.getCreatorProfile() != null) {
+            suggestion.creatorName(user.getCreatorProfile().getCreatorName());
+        }
+        return suggestion.build();
+    }
+
+    private static long scoreOf(User user) {
+        CreatorProfile creatorProfile = user.getCreatorProfile();
+        if (!user.isCreator() || creatorProfile == null || creatorProfile.getStatistics() == null) {
+            return 0;
+        }
+        return creatorProfile.getStatistics().getSubscriberCount();
+    }
+}
@@ -0,0 +1,20 @@
+package com.learn.desifans_user_service.search;
+
+import com.learn.desifans_user_service.model.User;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives the search tokens and prefixes of a user on every save, so the search index can never drift
+ * from the names it was built from. Partial projected users are never saved, so the tokens
+ * are always computed from a complete document.
+ */
+@Component
+public class UserSearchFieldsCallback implements BeforeConvertCallback<User> {
+
+    @Override
+    public User onBeforeConvert(User user, String collection) {
+        SearchTokenizer.apply(user);
+        return user;
+    }
+}
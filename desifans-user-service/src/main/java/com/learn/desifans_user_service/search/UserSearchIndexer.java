@@ -0,0 +1,137 @@
+package com.learn.desifans_user_service.search;
+
+import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.repository.UserRepository;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Brings the users collection up to what search expects when the application starts.
+ *
+ * The text index covers the derived {@code searchTokens} and {@code searchPrefixes} fields
+ * behind an equality prefix on status, so a search only scores documents of the status it asks
+ * for. Whole tokens weigh more than prefixes, so "desi" ranks a user named Desi above one named
+ * Desifan. A text index with a different definition (the collection allows only one) is
+ * dropped and replaced. Users saved before search prefixes existed are then backfilled from a
+ * streaming cursor in bulk batches. Once every user has them the backfill writes nothing; set
+ * {@code index-on-startup} to false to skip its scan entirely.
+ */
+@Component
+@Slf4j
+public class UserSearchIndexer {
+
+    public static final String SEARCH_INDEX_NAME = "user_search_index";
+
+    private static final Document SEARCH_INDEX_KEYS = new Document("status", 1)
+            .append("searchTokens", "text")
+            .append("searchPrefixes", "text");
+    private static final Document SEARCH_INDEX_WEIGHTS = new Document("searchTokens", 3).append("searchPrefixes", 1);
+    // How the server stores SEARCH_INDEX_KEYS: the text fields become _fts/_ftsx
+    private static final Document STORED_SEARCH_INDEX_KEYS = new Document("status", 1).append("_fts", "text").append("_ftsx", 1);
+    private static final String DEFAULT_LANGUAGE = "none";
+
+    private final MongoTemplate mongoTemplate;
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public UserSearchIndexer(MongoTemplate mongoTemplate,
+                             UserRepository userRepository,
+                             @Value("${app.search.index-on-startup:true}") boolean enabled,
+                             @Value("${app.search.backfill-batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepare() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            ensureSearchIndex();
+            long backfilled = backfillSearchTokens();
+            if (backfilled > 0) {
+                log.info("Backfilled search tokens for {} users", backfilled);
+            }
+        } catch (Exception e) {
+            log.warn("Search index preparation failed, search may be incomplete: {}", e.getMessage());
+        }
+    }
+
+    private void ensureSearchIndex() {
+        MongoCollection<Document> users = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class));
+        for (Document index : users.listIndexes()) {
+            Document weights = index.get("weights", Document.class);
+            if (weights == null) {
+                continue;
+            }
+            if (SEARCH_INDEX_NAME.equals(index.getString("name"))
+                    && sameKeys(index.get("key", Document.class), STORED_SEARCH_INDEX_KEYS)
+                    && sameWeights(weights, SEARCH_INDEX_WEIGHTS)
+                    && DEFAULT_LANGUAGE.equals(index.getString("default_language"))) {
+                return;
+            }
+            log.info("Replacing text index {} on {}", index.getString("name"), users.getNamespace());
+            users.dropIndex(index.getString("name"));
+        }
+        users.createIndex(SEARCH_INDEX_KEYS, new IndexOptions()
+                .name(SEARCH_INDEX_NAME)
+                .weights(SEARCH_INDEX_WEIGHTS)
+                .defaultLanguage(DEFAULT_LANGUAGE));
+    }
+
+    // Same fields in the same order; directions compare by value, as 1 may be stored as an int or a double
+    private static boolean sameKeys(Document actual, Document expected) {
+        if (actual == null || !List.copyOf(actual.keySet()).equals(List.copyOf(expected.keySet()))) {
+            return false;
+        }
+        return expected.entrySet().stream().allMatch(entry -> {
+            Object value = actual.get(entry.getKey());
+            return value instanceof Number number && entry.getValue() instanceof Number direction
+                    ? number.doubleValue() == direction.doubleValue()
+                    : entry.getValue().equals(value);
+        });
+    }
+
+    private static boolean sameWeights(Document actual, Document expected) {
+        return actual.keySet().equals(expected.keySet()) && expected.entrySet().stream().allMatch(entry ->
+                actual.get(entry.getKey()) instanceof Number weight
+                        && weight.doubleValue() == ((Number) entry.getValue()).doubleValue());
+    }
+
+    private long backfillSearchTokens() {
+        long total = 0;
+        try (Stream<User> candidates = userRepository.streamUsersWithoutSearchPrefixes()) {
+            Iterator<User> iterator = candidates.iterator();
+            List<User> batch = new ArrayList<>();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                SearchTokenizer.apply(user);
+                batch.add(user);
+                if (batch.size() >= batchSize) {
+                    userRepository.setSearchFields(batch);
+                    total += batch.size();
+                    batch.clear();
+                }
+            }
+            userRepository.setSearchFields(batch);
+            total += batch.size();
+        }
+        return total;
+    }
+}
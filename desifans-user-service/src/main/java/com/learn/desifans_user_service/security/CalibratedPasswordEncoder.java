@@ -0,0 +1,92 @@
+package com.learn.desifans_user_service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose work factor is calibrated to this host at startup.
+ *
+ * Hash time is measured at a cheap cost and extrapolated (each extra round doubles the work)
+ * to the highest cost that stays within the per-hash latency budget, clamped to
+ * [{@code minRounds}, {@code maxRounds}]. Hashes of any cost still verify; {@link #upgradeEncoding}
+ * reports hashes that are weaker than the target so they can be re-encoded on the next
+ * successful login. Stronger hashes are never re-encoded downward, which would weaken them and
+ * rehash users back and forth when nodes of different speed calibrate differently.
+ */
+@Slf4j
+public class CalibratedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+    private static final int CALIBRATION_ROUNDS = 8;
+    private static final int CALIBRATION_SAMPLES = 5;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int targetRounds;
+
+    public CalibratedPasswordEncoder(int targetRounds) {
+        this.targetRounds = targetRounds;
+        this.delegate = new BCryptPasswordEncoder(targetRounds);
+    }
+
+    /**
+     * Measure this host and build an encoder for the highest cost within the latency budget
+     */
+    public static CalibratedPasswordEncoder calibrate(long targetLatencyMillis, int minRounds, int maxRounds) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(CALIBRATION_ROUNDS);
+        probe.encode("calibration-warmup");
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-sample");
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        double budgetNanos = targetLatencyMillis * 1_000_000.0;
+        int rounds = CALIBRATION_ROUNDS;
+        while (rounds < maxRounds && bestNanos * Math.pow(2, rounds + 1 - CALIBRATION_ROUNDS) <= budgetNanos) {
+            rounds++;
+        }
+        rounds = Math.max(minRounds, Math.min(maxRounds, rounds));
+
+        double estimatedMillis = bestNanos * Math.pow(2, rounds - CALIBRATION_ROUNDS) / 1_000_000.0;
+        log.info("BCrypt calibrated to {} rounds (~{} ms per hash, budget {} ms)",
+                rounds, Math.round(estimatedMillis), targetLatencyMillis);
+        return new CalibratedPasswordEncoder(rounds);
+    }
+
+    public int getTargetRounds() {
+        return targetRounds;
+    }
+
+    /**
+     * Cost parameter recorded in a stored BCrypt hash, or -1 if it is not a BCrypt hash
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost < targetRounds;
+    }
+}
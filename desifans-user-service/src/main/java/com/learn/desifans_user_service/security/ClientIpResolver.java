@@ -0,0 +1,76 @@
+package com.learn.desifans_user_service.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.validator.routines.InetAddressValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Client address of a request, for per-IP limits.
+ *
+ * Forwarding headers are only believed when the request comes from a configured proxy
+ * ({@code app.security.trusted-proxies}, addresses or CIDR ranges). X-Forwarded-For is then
+ * read right to left, skipping hops that are trusted proxies themselves; the first other hop
+ * is the client. Entries to the left of it were supplied by the client and are ignored, so
+ * changing the header cannot buy a fresh per-IP window.
+ */
+@Component
+public class ClientIpResolver {
+
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    private static final String REAL_IP_HEADER = "X-Real-IP";
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public ClientIpResolver(
+            @Value("${app.security.trusted-proxies:127.0.0.0/8,::1}") List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!isTrustedProxy(remoteAddress)) {
+            return remoteAddress;
+        }
+
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            String[] hops = forwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (!isIpAddress(hop)) {
+                    // Anything past a malformed hop is not trustworthy
+                    return remoteAddress;
+                }
+                if (!isTrustedProxy(hop)) {
+                    return hop;
+                }
+            }
+            // Every hop is a proxy; the leftmost is the closest thing to a client
+            return hops[0].trim();
+        }
+
+        String realIp = request.getHeader(REAL_IP_HEADER);
+        if (realIp != null && isIpAddress(realIp.trim())) {
+            return realIp.trim();
+        }
+        return remoteAddress;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        return address != null && isIpAddress(address)
+                && trustedProxies.stream().anyMatch(proxy -> proxy.matches(address));
+    }
+
+    // Only literal addresses are matched, never names that would need a DNS lookup
+    private static boolean isIpAddress(String address) {
+        return InetAddressValidator.getInstance().isValid(address);
+    }
+}
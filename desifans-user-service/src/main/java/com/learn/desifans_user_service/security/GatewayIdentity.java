@@ -0,0 +1,7 @@
+package com.learn.desifans_user_service.security;
+
+/**
+ * Caller identity the API gateway verified from the access token and signed into headers.
+ */
+public record GatewayIdentity(String userId, String role, String sessionId) {
+}
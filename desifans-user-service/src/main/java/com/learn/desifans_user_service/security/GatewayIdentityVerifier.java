@@ -0,0 +1,106 @@
+package com.learn.desifans_user_service.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Verifies the identity headers the API gateway adds after validating an access token.
+ *
+ * The gateway signs {@code userId|role|sessionId|timestamp} with HMAC-SHA256 under the shared
+ * {@code GATEWAY_IDENTITY_SECRET}. A request is only trusted when the signature matches and the
+ * timestamp is within {@code max-age} of now, so captured headers cannot be replayed for long.
+ * Without a configured secret no headers are trusted and callers fall back to the bearer token.
+ */
+@Component
+@Slf4j
+public class GatewayIdentityVerifier {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+    public static final String SESSION_ID_HEADER = "X-Session-Id";
+    public static final String IDENTITY_TIMESTAMP_HEADER = "X-Identity-Timestamp";
+    public static final String IDENTITY_SIGNATURE_HEADER = "X-Identity-Signature";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final SecretKeySpec key;
+    private final long maxAgeMillis;
+
+    // Mac is not thread-safe; one per request thread
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
+
+    public GatewayIdentityVerifier(@Value("${app.security.gateway-identity.secret:}") String secret,
+                                   @Value("${app.security.gateway-identity.max-age:60000}") long maxAgeMillis) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length > 0 && secretBytes.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("app.security.gateway-identity.secret must be at least "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = secretBytes.length > 0 ? new SecretKeySpec(secretBytes, HMAC_ALGORITHM) : null;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * The signed identity of the request, or empty if it has none or it does not verify
+     */
+    public Optional<GatewayIdentity> verify(HttpServletRequest request) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        String timestamp = request.getHeader(IDENTITY_TIMESTAMP_HEADER);
+        String signature = request.getHeader(IDENTITY_SIGNATURE_HEADER);
+        if (key == null || userId == null || userId.isEmpty() || timestamp == null || signature == null) {
+            return Optional.empty();
+        }
+
+        long signedAt;
+        try {
+            signedAt = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        if (Math.abs(System.currentTimeMillis() - signedAt) > maxAgeMillis) {
+            log.debug("Ignoring gateway identity signed {} ms ago", System.currentTimeMillis() - signedAt);
+            return Optional.empty();
+        }
+
+        String role = valueOrEmpty(request.getHeader(USER_ROLE_HEADER));
+        String sessionId = valueOrEmpty(request.getHeader(SESSION_ID_HEADER));
+        byte[] expected = mac.get().doFinal((userId + "|" + role + "|" + sessionId + "|" + timestamp)
+                .getBytes(StandardCharsets.UTF_8));
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            log.warn("Rejected gateway identity headers with a bad signature for {}", request.getRequestURI());
+            return Optional.empty();
+        }
+        return Optional.of(new GatewayIdentity(userId, role.isEmpty() ? null : role, sessionId.isEmpty() ? null : sessionId));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialize gateway identity verification", e);
+        }
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -1,11 +1,10 @@
 package com.learn.desifans_user_service.security;
 
-import com.learn.desifans_user_service.model.User;
-import com.learn.desifans_user_service.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import com.learn.desifans_user_service.service.ActivityTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -17,6 +16,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -24,6 +24,8 @@ import java.util.Collections;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenService jwtTokenService;
+    private final GatewayIdentityVerifier gatewayIdentityVerifier;
+    private final ActivityTracker activityTracker;
     
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
@@ -43,50 +45,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                   FilterChain filterChain) throws ServletException, IOException {
         
         try {
+            Optional<GatewayIdentity> gatewayIdentity = gatewayIdentityVerifier.verify(request);
             final String authHeader = request.getHeader("Authorization");
-            final String jwt;
-            final String userId;
             
-            // Check if Authorization header exists and starts with "Bearer "
-            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            if (gatewayIdentity.isPresent()) {
+                // Identity the gateway already verified and signed needs no second token check
+                GatewayIdentity identity = gatewayIdentity.get();
+                authenticate(request, identity.userId(), identity.role(), identity.sessionId());
+            } else if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                // Validate token once and extract its claims
+                VerifiedToken token = jwtTokenService.verify(authHeader.substring(7));
+                authenticate(request, token.subject(), token.role(), token.sessionId());
+            } else {
                 log.debug("No valid Authorization header found for URI: {}", request.getRequestURI());
-                filterChain.doFilter(request, response);
-                return;
-            }
-            
-            // Extract JWT token
-            jwt = authHeader.substring(7);
-            
-            // Extract user ID from token
-            userId = jwtTokenService.getUserIdFromToken(jwt);
-            
-            // If user ID exists and no authentication is already set
-            if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                
-                // Validate token
-                if (jwtTokenService.isValidToken(jwt)) {
-                    
-                    // Create simple authentication without loading full user details
-                    // This avoids circular dependency
-                    UsernamePasswordAuthenticationToken authToken = 
-                        new UsernamePasswordAuthenticationToken(
-                            userId, // Use userId as principal
-                            null, // No credentials needed
-                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")) // Default role
-                        );
-                    
-                    // Set authentication details
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    
-                    // Set authentication in security context
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    
-                    log.debug("Successfully authenticated user: {} for URI: {}", userId, request.getRequestURI());
-                } else {
-                    log.debug("Invalid JWT token for user: {} and URI: {}", userId, request.getRequestURI());
-                    // Clear any existing authentication
-                    SecurityContextHolder.clearContext();
-                }
             }
             
         } catch (Exception e) {
@@ -97,4 +68,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    private void authenticate(HttpServletRequest request, String userId, String role, String sessionId) {
+        // If user ID exists and no authentication is already set
+        if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            
+            // Create simple authentication without loading full user details
+            // This avoids circular dependency
+            String authority = role != null ? "ROLE_" + role : "ROLE_USER";
+            UsernamePasswordAuthenticationToken authToken = 
+                new UsernamePasswordAuthenticationToken(
+                    userId, // Use userId as principal
+                    null, // No credentials needed
+                    Collections.singletonList(new SimpleGrantedAuthority(authority))
+                );
+            
+            // Set authentication details
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            
+            // Set authentication in security context
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+            
+            log.debug("Successfully authenticated user: {} for URI: {}", userId, request.getRequestURI());
+            
+            // Buffered; written out in batches by the tracker
+            activityTracker.recordActivity(userId, sessionId);
+        }
+    }
 }
@@ -0,0 +1,279 @@
+package com.learn.desifans_user_service.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.learn.desifans_user_service.exception.InvalidTokenException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.security.KeyPair;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Signing and verification keys for JWTs, selected by the {@code kid} header.
+ *
+ * With {@code app.security.jwt.algorithm: HS256} (the default) keys are shared secrets
+ * configured under {@code app.security.jwt.keys.<kid>}; when none are configured the legacy
+ * {@code app.security.jwt.secret} is used as key {@value #DEFAULT_KEY_ID}.
+ * With {@code RS256} keys are PEM encoded RSA pairs under {@code app.security.jwt.rsa-keys.<kid>},
+ * and their public halves are published as a JWKS so other services can verify tokens locally.
+ * The key used for new tokens is chosen by {@code app.security.jwt.active-key-id}.
+ *
+ * Algorithms and verifiers are built once per key. The ring is reloaded whenever the
+ * environment is refreshed, so keys can be rotated without a restart. A key removed
+ * from configuration keeps verifying until every token it could have signed has expired.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing {
+
+    public static final String ISSUER = "desifans-user-service";
+    static final String DEFAULT_KEY_ID = "default";
+
+    private static final String PROPERTY_PREFIX = "app.security.jwt";
+    private static final String ALGORITHM_PROPERTY = PROPERTY_PREFIX + ".algorithm";
+    private static final String KEYS_PROPERTY = PROPERTY_PREFIX + ".keys";
+    private static final String RSA_KEYS_PROPERTY = PROPERTY_PREFIX + ".rsa-keys";
+    private static final String ACTIVE_KEY_PROPERTY = PROPERTY_PREFIX + ".active-key-id";
+    private static final String LEGACY_SECRET_PROPERTY = PROPERTY_PREFIX + ".secret";
+
+    private final Environment environment;
+    private final long maxTokenLifetimeMillis;
+
+    private volatile Map<String, KeyEntry> keys = Collections.emptyMap();
+    private volatile KeyEntry activeKey;
+    private volatile JsonWebKeySet jwks;
+
+    // Only used when RS256 is enabled without configured keys
+    private KeyPair ephemeralKeyPair;
+    private String ephemeralKeyId;
+
+    public JwtKeyRing(Environment environment,
+                      @Value("${app.security.jwt.refresh-token.expiration}") long refreshTokenExpiration) {
+        this.environment = environment;
+        this.maxTokenLifetimeMillis = refreshTokenExpiration;
+        reload();
+    }
+
+    /**
+     * Key used to sign new tokens
+     */
+    public KeyEntry signingKey() {
+        return activeKey;
+    }
+
+    /**
+     * Public keys of the ring as a JSON Web Key Set, with an ETag over its content
+     */
+    public JsonWebKeySet jwks() {
+        return jwks;
+    }
+
+    /**
+     * Verifier for the given key id. Tokens issued before key ids were introduced carry no
+     * {@code kid} and are checked against the default key, falling back to the active one.
+     */
+    public JWTVerifier verifierFor(String keyId) {
+        Map<String, KeyEntry> current = keys;
+        KeyEntry entry = keyId != null ? current.get(keyId) : current.getOrDefault(DEFAULT_KEY_ID, activeKey);
+
+        if (entry == null || entry.isExpired(Instant.now(), maxTokenLifetimeMillis)) {
+            throw new InvalidTokenException("Unknown signing key");
+        }
+        return entry.verifier();
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PROPERTY_PREFIX))) {
+            reload();
+        }
+    }
+
+    /**
+     * Rebuild the ring from configuration, reusing keys whose material did not change
+     */
+    public synchronized void reload() {
+        String algorithm = environment.getProperty(ALGORITHM_PROPERTY, "HS256");
+        Map<String, KeySource> configured = switch (algorithm) {
+            case "HS256" -> hmacKeySources();
+            case "RS256" -> rsaKeySources();
+            default -> throw new IllegalStateException("Unsupported JWT algorithm: " + algorithm);
+        };
+
+        Instant now = Instant.now();
+        Map<String, KeyEntry> previous = keys;
+        Map<String, KeyEntry> next = new LinkedHashMap<>();
+
+        configured.forEach((keyId, source) -> {
+            KeyEntry existing = previous.get(keyId);
+            if (existing != null && existing.fingerprint().equals(source.fingerprint())) {
+                next.put(keyId, existing.retiredAt() == null ? existing : existing.withRetiredAt(null));
+            } else {
+                next.put(keyId, source.create(keyId));
+            }
+        });
+
+        // Keys dropped from configuration keep verifying until their tokens have expired
+        previous.forEach((keyId, entry) -> {
+            if (!next.containsKey(keyId) && !entry.isExpired(now, maxTokenLifetimeMillis)) {
+                next.put(keyId, entry.retiredAt() != null ? entry : entry.withRetiredAt(now));
+            }
+        });
+
+        String activeKeyId = environment.getProperty(ACTIVE_KEY_PROPERTY, configured.keySet().iterator().next());
+        KeyEntry active = next.get(activeKeyId);
+        if (active == null || active.retiredAt() != null || !active.canSign()) {
+            throw new IllegalStateException("Active JWT key '" + activeKeyId + "' is not configured for signing");
+        }
+
+        this.keys = Collections.unmodifiableMap(next);
+        this.activeKey = active;
+        this.jwks = JsonWebKeySet.of(next.values());
+        log.info("JWT key ring loaded: {} active key '{}', {} verification key(s)", algorithm, activeKeyId, next.size());
+    }
+
+    private Map<String, KeySource> hmacKeySources() {
+        Map<String, String> secrets = new LinkedHashMap<>(Binder.get(environment)
+                .bind(KEYS_PROPERTY, Bindable.mapOf(String.class, String.class))
+                .orElse(Collections.emptyMap()));
+
+        if (secrets.isEmpty()) {
+            secrets.put(DEFAULT_KEY_ID, environment.getRequiredProperty(LEGACY_SECRET_PROPERTY));
+        }
+
+        Map<String, KeySource> sources = new LinkedHashMap<>();
+        secrets.forEach((keyId, secret) -> sources.put(keyId, KeySource.hmac(secret)));
+        return sources;
+    }
+
+    private Map<String, KeySource> rsaKeySources() {
+        Map<String, RsaKeyProperties> pairs = Binder.get(environment)
+                .bind(RSA_KEYS_PROPERTY, Bindable.mapOf(String.class, RsaKeyProperties.class))
+                .orElse(Collections.emptyMap());
+
+        Map<String, KeySource> sources = new LinkedHashMap<>();
+        pairs.forEach((keyId, pair) -> sources.put(keyId, KeySource.rsa(pair.privateKey(), pair.publicKey())));
+
+        if (sources.isEmpty()) {
+            if (ephemeralKeyPair == null) {
+                log.warn("RS256 enabled without app.security.jwt.rsa-keys, generating an ephemeral key pair. "
+                        + "Tokens will not survive a restart or verify across instances.");
+                ephemeralKeyPair = RsaKeys.generate();
+                ephemeralKeyId = "ephemeral-" + UUID.randomUUID();
+            }
+            sources.put(ephemeralKeyId, KeySource.rsa(ephemeralKeyPair));
+        }
+        return sources;
+    }
+
+    /**
+     * PEM encoded RSA key pair; the public key may be omitted when the private key carries it
+     */
+    public record RsaKeyProperties(String privateKey, String publicKey) {
+    }
+
+    /**
+     * Configured key material, fingerprinted so unchanged keys are reused on reload
+     */
+    private record KeySource(String fingerprint, KeyEntryFactory factory) {
+
+        static KeySource hmac(String secret) {
+            return new KeySource(TokenDigest.sha256(secret), keyId -> KeyEntry.hmac(keyId, secret));
+        }
+
+        static KeySource rsa(String privateKeyPem, String publicKeyPem) {
+            String fingerprint = TokenDigest.sha256(String.valueOf(privateKeyPem) + "/" + publicKeyPem);
+            return new KeySource(fingerprint, keyId -> {
+                RSAPrivateKey privateKey = privateKeyPem != null ? RsaKeys.parsePrivateKey(privateKeyPem) : null;
+                RSAPublicKey publicKey = publicKeyPem != null
+                        ? RsaKeys.parsePublicKey(publicKeyPem)
+                        : RsaKeys.derivePublicKey(privateKey);
+                return KeyEntry.rsa(keyId, fingerprint, publicKey, privateKey);
+            });
+        }
+
+        static KeySource rsa(KeyPair keyPair) {
+            RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+            String fingerprint = TokenDigest.sha256(publicKey.getModulus().toString());
+            return new KeySource(fingerprint,
+                    keyId -> KeyEntry.rsa(keyId, fingerprint, publicKey, (RSAPrivateKey) keyPair.getPrivate()));
+        }
+
+        KeyEntry create(String keyId) {
+            return factory.create(keyId);
+        }
+    }
+
+    @FunctionalInterface
+    private interface KeyEntryFactory {
+        KeyEntry create(String keyId);
+    }
+
+    /**
+     * A single key with its prebuilt algorithm and verifier.
+     * {@code publicKey} is only set for asymmetric keys, {@code canSign} only when the private half is known.
+     */
+    public record KeyEntry(String id, String fingerprint, Algorithm algorithm, JWTVerifier verifier,
+                           RSAPublicKey publicKey, boolean canSign, Instant retiredAt) {
+
+        static KeyEntry hmac(String id, String secret) {
+            Algorithm algorithm = Algorithm.HMAC256(secret);
+            return new KeyEntry(id, TokenDigest.sha256(secret), algorithm, verifier(algorithm), null, true, null);
+        }
+
+        static KeyEntry rsa(String id, String fingerprint, RSAPublicKey publicKey, RSAPrivateKey privateKey) {
+            Algorithm algorithm = Algorithm.RSA256(publicKey, privateKey);
+            return new KeyEntry(id, fingerprint, algorithm, verifier(algorithm), publicKey, privateKey != null, null);
+        }
+
+        private static JWTVerifier verifier(Algorithm algorithm) {
+            return JWT.require(algorithm)
+                    .withIssuer(ISSUER)
+                    .build();
+        }
+
+        KeyEntry withRetiredAt(Instant retiredAt) {
+            return new KeyEntry(id, fingerprint, algorithm, verifier, publicKey, canSign, retiredAt);
+        }
+
+        boolean isExpired(Instant now, long maxTokenLifetimeMillis) {
+            return retiredAt != null && retiredAt.plusMillis(maxTokenLifetimeMillis).isBefore(now);
+        }
+    }
+
+    /**
+     * Serialized JWKS document; symmetric keys are never published
+     */
+    public record JsonWebKeySet(Map<String, Object> document, String etag) {
+
+        static JsonWebKeySet of(Iterable<KeyEntry> entries) {
+            List<Map<String, Object>> jwkList = new ArrayList<>();
+            StringBuilder fingerprints = new StringBuilder();
+            for (KeyEntry entry : entries) {
+                if (entry.publicKey() == null) {
+                    continue;
+                }
+                jwkList.add(RsaKeys.toJwk(entry.id(), entry.publicKey()));
+                fingerprints.append(entry.id()).append(':').append(entry.fingerprint()).append(';');
+            }
+            String etag = "\"" + TokenDigest.sha256(fingerprints.toString()) + "\"";
+            return new JsonWebKeySet(Map.of("keys", List.copyOf(jwkList)), etag);
+        }
+    }
+}
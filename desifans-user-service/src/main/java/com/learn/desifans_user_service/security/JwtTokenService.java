@@ -1,59 +1,60 @@
 package com.learn.desifans_user_service.security;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.learn.desifans_user_service.model.User;
 import com.learn.desifans_user_service.exception.TokenExpiredException;
 import com.learn.desifans_user_service.exception.InvalidTokenException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class JwtTokenService {
     
-    @Value("${app.security.jwt.secret}")
-    private String jwtSecret;
-    
     @Value("${app.security.jwt.access-token.expiration}")
     private long accessTokenExpiration;
     
     @Value("${app.security.jwt.refresh-token.expiration}")
     private long refreshTokenExpiration;
     
-    private final RedisTemplate<String, String> redisTemplate;
-    private final boolean redisAvailable;
+    private final JwtKeyRing keyRing;
+    private final TokenRevocationCache revocationCache;
+    private final TokenGenerationService tokenGenerations;
+    
+    // Tokens whose signature and claims were already checked, keyed by token digest
+    private final Cache<String, VerifiedToken> verifiedTokens;
     
-    private static final String BLACKLIST_PREFIX = "auth:blacklist:";
     private static final String ACCESS_TOKEN_TYPE = "ACCESS_TOKEN";
     private static final String REFRESH_TOKEN_TYPE = "REFRESH_TOKEN";
+    private static final String USER_GENERATION_CLAIM = "ugen";
+    private static final String SESSION_GENERATION_CLAIM = "sgen";
     
-    public JwtTokenService(RedisTemplate<String, String> redisTemplate) {
-        this.redisTemplate = redisTemplate;
-        this.redisAvailable = testRedisConnection();
-    }
-    
-    private boolean testRedisConnection() {
-        try {
-            redisTemplate.hasKey("test:connection");
-            return true;
-        } catch (Exception e) {
-            log.warn("Redis not available, JWT blacklisting will be disabled: {}", e.getMessage());
-            return false;
-        }
+    public JwtTokenService(JwtKeyRing keyRing,
+                           TokenRevocationCache revocationCache,
+                           TokenGenerationService tokenGenerations,
+                           @Value("${app.security.jwt.verified-cache.max-size:10000}") long verifiedCacheMaxSize) {
+        this.keyRing = keyRing;
+        this.revocationCache = revocationCache;
+        this.tokenGenerations = tokenGenerations;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
     }
     
     /**
@@ -61,11 +62,12 @@ public class JwtTokenService {
      */
     public String generateAccessToken(User user, String sessionId) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(jwtSecret);
+            JwtKeyRing.KeyEntry signingKey = keyRing.signingKey();
             Date expirationDate = new Date(System.currentTimeMillis() + accessTokenExpiration);
             String tokenId = UUID.randomUUID().toString();
             
             return JWT.create()
+                    .withKeyId(signingKey.id())
                     .withSubject(user.getId())
                     .withClaim("username", user.getUsername())
                     .withClaim("email", user.getEmail())
@@ -74,10 +76,12 @@ public class JwtTokenService {
                     .withClaim("sessionId", sessionId)
                     .withClaim("type", ACCESS_TOKEN_TYPE)
                     .withClaim("tokenId", tokenId)
+                    .withClaim(USER_GENERATION_CLAIM, tokenGenerations.currentUserGeneration(user.getId()))
+                    .withClaim(SESSION_GENERATION_CLAIM, tokenGenerations.currentSessionGeneration(sessionId))
                     .withIssuedAt(new Date())
                     .withExpiresAt(expirationDate)
-                    .withIssuer("desifans-user-service")
-                    .sign(algorithm);
+                    .withIssuer(JwtKeyRing.ISSUER)
+                    .sign(signingKey.algorithm());
         } catch (JWTCreationException e) {
             throw new RuntimeException("Error creating access token", e);
         }
@@ -88,43 +92,81 @@ public class JwtTokenService {
      */
     public String generateRefreshToken(User user, String sessionId) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(jwtSecret);
+            JwtKeyRing.KeyEntry signingKey = keyRing.signingKey();
             Date expirationDate = new Date(System.currentTimeMillis() + refreshTokenExpiration);
             String tokenId = UUID.randomUUID().toString();
             
             return JWT.create()
+                    .withKeyId(signingKey.id())
                     .withSubject(user.getId())
                     .withClaim("sessionId", sessionId)
                     .withClaim("type", REFRESH_TOKEN_TYPE)
                     .withClaim("tokenId", tokenId)
+                    .withClaim(USER_GENERATION_CLAIM, tokenGenerations.currentUserGeneration(user.getId()))
+                    .withClaim(SESSION_GENERATION_CLAIM, tokenGenerations.currentSessionGeneration(sessionId))
                     .withIssuedAt(new Date())
                     .withExpiresAt(expirationDate)
-                    .withIssuer("desifans-user-service")
-                    .sign(algorithm);
+                    .withIssuer(JwtKeyRing.ISSUER)
+                    .sign(signingKey.algorithm());
         } catch (JWTCreationException e) {
             throw new RuntimeException("Error creating refresh token", e);
         }
     }
     
+    /**
+     * Verify token once and return its claims.
+     * Repeat calls with the same token skip signature verification and parsing;
+     * revocation is still checked on every call.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = TokenDigest.sha256(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        
+        if (verified == null) {
+            verified = toVerifiedToken(decodeAndVerify(token));
+            verifiedTokens.put(digest, verified);
+        }
+        
+        if (verified.isExpired()) {
+            verifiedTokens.invalidate(digest);
+            throw new TokenExpiredException();
+        }
+        
+        if (isTokenBlacklisted(verified.tokenId()) || tokenGenerations.isStale(verified)) {
+            throw new InvalidTokenException("Token has been revoked");
+        }
+        
+        return verified;
+    }
+    
     /**
      * Validate and decode JWT token
      */
     public DecodedJWT validateToken(String token) {
+        DecodedJWT decodedJWT = decodeAndVerify(token);
+        
+        // Check if token is blacklisted or its session was revoked
+        if (isTokenBlacklisted(decodedJWT.getClaim("tokenId").asString())
+                || tokenGenerations.isStale(toVerifiedToken(decodedJWT))) {
+            throw new InvalidTokenException("Token has been revoked");
+        }
+        
+        return decodedJWT;
+    }
+    
+    /**
+     * Verify signature, issuer and expiry of a token
+     */
+    private DecodedJWT decodeAndVerify(String token) {
         try {
-            // Check if token is blacklisted
-            String tokenId = getTokenIdFromToken(token);
-            if (isTokenBlacklisted(tokenId)) {
-                throw new InvalidTokenException("Token has been revoked");
-            }
-            
-            Algorithm algorithm = Algorithm.HMAC256(jwtSecret);
-            JWTVerifier verifier = JWT.require(algorithm)
-                    .withIssuer("desifans-user-service")
-                    .build();
-            
-            DecodedJWT decodedJWT = verifier.verify(token);
+            // Parse once, then verify with the key named in the header
+            DecodedJWT unverified = JWT.decode(token);
+            DecodedJWT decodedJWT = keyRing.verifierFor(unverified.getKeyId()).verify(unverified);
             
             // Check if token is expired
+            if (decodedJWT.getExpiresAt() == null) {
+                throw new InvalidTokenException("Token has no expiration");
+            }
             if (decodedJWT.getExpiresAt().before(new Date())) {
                 throw new TokenExpiredException();
             }
@@ -138,12 +180,30 @@ public class JwtTokenService {
         }
     }
     
+    private VerifiedToken toVerifiedToken(DecodedJWT decodedJWT) {
+        return new VerifiedToken(
+                decodedJWT.getSubject(),
+                decodedJWT.getClaim("sessionId").asString(),
+                decodedJWT.getClaim("role").asString(),
+                decodedJWT.getClaim("type").asString(),
+                decodedJWT.getClaim("tokenId").asString(),
+                longClaim(decodedJWT, USER_GENERATION_CLAIM),
+                longClaim(decodedJWT, SESSION_GENERATION_CLAIM),
+                decodedJWT.getExpiresAt().toInstant()
+        );
+    }
+    
+    private static long longClaim(DecodedJWT decodedJWT, String name) {
+        Long value = decodedJWT.getClaim(name).asLong();
+        return value != null ? value : 0L;
+    }
+    
     /**
      * Simple boolean validation for security filter
      */
     public boolean isValidToken(String token) {
         try {
-            validateToken(token);
+            verify(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -154,16 +214,14 @@ public class JwtTokenService {
      * Extract user ID from token
      */
     public String getUserIdFromToken(String token) {
-        DecodedJWT decodedJWT = validateToken(token);
-        return decodedJWT.getSubject();
+        return verify(token).subject();
     }
     
     /**
      * Extract session ID from token
      */
     public String getSessionIdFromToken(String token) {
-        DecodedJWT decodedJWT = validateToken(token);
-        return decodedJWT.getClaim("sessionId").asString();
+        return verify(token).sessionId();
     }
     
     /**
@@ -182,8 +240,7 @@ public class JwtTokenService {
      * Extract token type from token
      */
     public String getTokenTypeFromToken(String token) {
-        DecodedJWT decodedJWT = validateToken(token);
-        return decodedJWT.getClaim("type").asString();
+        return verify(token).type();
     }
     
     /**
@@ -204,56 +261,42 @@ public class JwtTokenService {
      * Blacklist a token
      */
     public void blacklistToken(String token) {
-        if (!redisAvailable) {
-            log.debug("Redis not available, skipping token blacklisting");
-            return;
-        }
-        
         try {
-            String tokenId = getTokenIdFromToken(token);
             DecodedJWT decodedJWT = JWT.decode(token);
-            
-            // Calculate TTL based on token expiration
-            long ttlSeconds = (decodedJWT.getExpiresAt().getTime() - System.currentTimeMillis()) / 1000;
-            
-            if (ttlSeconds > 0) {
-                redisTemplate.opsForValue().set(
-                    BLACKLIST_PREFIX + tokenId, 
-                    "blacklisted", 
-                    ttlSeconds, 
-                    TimeUnit.SECONDS
-                );
-            }
+            verifiedTokens.invalidate(TokenDigest.sha256(token));
+            revocationCache.revoke(decodedJWT.getClaim("tokenId").asString(), decodedJWT.getExpiresAt().toInstant());
         } catch (Exception e) {
             // Log error but don't throw - blacklisting failure shouldn't break the flow
             log.warn("Error blacklisting token: {}", e.getMessage());
         }
     }
     
+    /**
+     * Revoke every token issued for a session
+     */
+    public void revokeSession(String sessionId) {
+        tokenGenerations.revokeSession(sessionId);
+    }
+    
+    /**
+     * Revoke every token issued for a user, across all sessions
+     */
+    public void revokeAllSessions(String userId) {
+        tokenGenerations.revokeUser(userId);
+    }
+    
     /**
      * Check if token is blacklisted
      */
     public boolean isTokenBlacklisted(String tokenId) {
-        if (!redisAvailable) {
-            // If Redis is not available, assume token is not blacklisted
-            return false;
-        }
-        
-        try {
-            return Boolean.TRUE.equals(redisTemplate.hasKey(BLACKLIST_PREFIX + tokenId));
-        } catch (Exception e) {
-            // If Redis is not available, assume token is not blacklisted
-            log.warn("Redis not available for token blacklist check, allowing token: {}", e.getMessage());
-            return false;
-        }
+        return revocationCache.isRevoked(tokenId);
     }
     
     /**
      * Get token expiration date
      */
     public LocalDateTime getTokenExpiration(String token) {
-        DecodedJWT decodedJWT = validateToken(token);
-        return decodedJWT.getExpiresAt().toInstant()
+        return verify(token).expiresAt()
                 .atZone(ZoneId.systemDefault())
                 .toLocalDateTime();
     }
@@ -312,4 +355,25 @@ public class JwtTokenService {
                     entry -> entry.getValue().as(Object.class)
                 ));
     }
+    
+    /**
+     * Expires cached verifications at the token's own exp claim
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+        
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return Math.max(Duration.between(Instant.now(), value.expiresAt()).toNanos(), 0);
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
@@ -0,0 +1,168 @@
+package com.learn.desifans_user_service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learn.desifans_user_service.exception.LoginThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sliding-window throttle for login attempts, checked before any database read or password hash.
+ *
+ * Attempts are counted per login identifier and per client IP over the same window. Each
+ * key is a Redis sorted set of attempt timestamps; one Lua script trims both windows, checks
+ * both limits and records the attempt only if both allow it, so concurrent instances share
+ * an exact count. When Redis is unreachable the same windows are kept in process, which
+ * limits each instance separately but never lets login run unthrottled. The local windows
+ * are a size-capped cache, so a flood of distinct identifiers cannot grow it without bound.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private static final String IDENTIFIER_PREFIX = "auth:throttle:id:";
+    private static final String IP_PREFIX = "auth:throttle:ip:";
+
+    // KEYS: identifier window, IP window. ARGV: window ms, identifier limit, IP limit, member.
+    // Returns 0 when the attempt is recorded, otherwise milliseconds until a slot frees up.
+    private static final RedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local window = tonumber(ARGV[1])
+            local wait = 0
+            for i, key in ipairs(KEYS) do
+              redis.call('ZREMRANGEBYSCORE', key, '-inf', now - window)
+              if redis.call('ZCARD', key) >= tonumber(ARGV[i + 1]) then
+                local oldest = redis.call('ZRANGE', key, 0, 0, 'WITHSCORES')
+                wait = math.max(wait, tonumber(oldest[2]) + window - now)
+              end
+            end
+            if wait > 0 then
+              return wait
+            end
+            for _, key in ipairs(KEYS) do
+              redis.call('ZADD', key, now, ARGV[4])
+              redis.call('PEXPIRE', key, window)
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final int maxPerIdentifier;
+    private final int maxPerIp;
+    private final Counter rejectedCounter;
+    private final boolean redisAvailable;
+
+    // Used instead of Redis when it is not reachable; windows are guarded by this
+    private final Cache<String, Deque<Long>> localWindows;
+
+    public LoginThrottle(RedisTemplate<String, String> redisTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.security.rate-limiting.login.throttle.enabled:true}") boolean enabled,
+                         @Value("${app.security.rate-limiting.login.throttle.window:300000}") long windowMillis,
+                         @Value("${app.security.rate-limiting.login.throttle.max-per-identifier:10}") int maxPerIdentifier,
+                         @Value("${app.security.rate-limiting.login.throttle.max-per-ip:50}") int maxPerIp,
+                         @Value("${app.security.rate-limiting.login.throttle.local-max-keys:100000}") long localMaxKeys) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxPerIdentifier = maxPerIdentifier;
+        this.maxPerIp = maxPerIp;
+        this.rejectedCounter = Counter.builder("auth.login.throttled")
+                .description("Login attempts rejected before authentication")
+                .register(meterRegistry);
+        this.redisAvailable = testRedisConnection();
+        this.localWindows = Caffeine.newBuilder()
+                .maximumSize(localMaxKeys)
+                .expireAfterAccess(Duration.ofMillis(windowMillis))
+                .build();
+    }
+
+    private boolean testRedisConnection() {
+        try {
+            redisTemplate.hasKey("test:connection");
+            return true;
+        } catch (Exception e) {
+            log.warn("Redis not available, login throttling will be tracked per instance: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Record a login attempt, or throw {@link LoginThrottledException} if either window is full
+     */
+    public void acquire(String loginIdentifier, String ipAddress) {
+        if (!enabled) {
+            return;
+        }
+
+        String identifierKey = IDENTIFIER_PREFIX + TokenDigest.sha256(normalize(loginIdentifier));
+        String ipKey = IP_PREFIX + (ipAddress != null ? ipAddress : "unknown");
+
+        long waitMillis = redisAvailable
+                ? acquireShared(identifierKey, ipKey)
+                : acquireLocal(identifierKey, ipKey);
+        if (waitMillis > 0) {
+            rejectedCounter.increment();
+            log.debug("Login throttled for {} from {}", loginIdentifier, ipAddress);
+            throw new LoginThrottledException(Math.max(1, (waitMillis + 999) / 1000));
+        }
+    }
+
+    private long acquireShared(String identifierKey, String ipKey) {
+        String member = System.currentTimeMillis() + ":" + ThreadLocalRandom.current().nextLong();
+        try {
+            Long waitMillis = redisTemplate.execute(SLIDING_WINDOW_SCRIPT, List.of(identifierKey, ipKey),
+                    String.valueOf(windowMillis), String.valueOf(maxPerIdentifier), String.valueOf(maxPerIp), member);
+            return waitMillis != null ? waitMillis : 0L;
+        } catch (Exception e) {
+            log.warn("Redis not available for login throttle, using local window: {}", e.getMessage());
+            return acquireLocal(identifierKey, ipKey);
+        }
+    }
+
+    private synchronized long acquireLocal(String identifierKey, String ipKey) {
+        long now = System.currentTimeMillis();
+        Deque<Long> identifierWindow = trimmedWindow(identifierKey, now);
+        Deque<Long> ipWindow = trimmedWindow(ipKey, now);
+
+        long waitMillis = Math.max(waitFor(identifierWindow, maxPerIdentifier, now), waitFor(ipWindow, maxPerIp, now));
+        if (waitMillis > 0) {
+            return waitMillis;
+        }
+        identifierWindow.addLast(now);
+        ipWindow.addLast(now);
+        return 0L;
+    }
+
+    private Deque<Long> trimmedWindow(String key, long now) {
+        Deque<Long> window = localWindows.get(key, k -> new ArrayDeque<>());
+        while (!window.isEmpty() && window.peekFirst() <= now - windowMillis) {
+            window.pollFirst();
+        }
+        return window;
+    }
+
+    private long waitFor(Deque<Long> window, int limit, long now) {
+        return window.size() >= limit ? window.peekFirst() + windowMillis - now : 0L;
+    }
+
+    private static String normalize(String loginIdentifier) {
+        return loginIdentifier != null ? loginIdentifier.trim().toLowerCase(Locale.ROOT) : "";
+    }
+}
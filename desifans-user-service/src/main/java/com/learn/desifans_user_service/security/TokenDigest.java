@@ -0,0 +1,38 @@
+package com.learn.desifans_user_service.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * SHA-256 digests of raw tokens, used wherever a token has to be used as a lookup key
+ * without keeping the bearer credential itself around.
+ */
+public final class TokenDigest {
+
+    private TokenDigest() {
+    }
+
+    public static String sha256(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Constant-time check of a raw token against a stored digest
+     */
+    public static boolean matches(String token, String expectedDigest) {
+        if (token == null || expectedDigest == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                sha256(token).getBytes(StandardCharsets.US_ASCII),
+                expectedDigest.getBytes(StandardCharsets.US_ASCII));
+    }
+}
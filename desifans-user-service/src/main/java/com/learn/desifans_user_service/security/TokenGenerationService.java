@@ -0,0 +1,233 @@
+package com.learn.desifans_user_service.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.learn.desifans_user_service.config.RedisEvictionPolicy;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user and per-session token generations.
+ *
+ * A generation is a "revoked before" time in epoch milliseconds. Every token is stamped with
+ * the current time for its user and session, always above the latest revocation, and revoking
+ * moves the generation to now, which revokes every token stamped at or before it in one O(1)
+ * write, so logging out everywhere no longer means blacklisting each token individually.
+ * Both the stamp and the revocation take their time from the Redis server clock, so instances
+ * with skewed clocks cannot issue tokens that outlive a revocation.
+ *
+ * Generations live in Redis under {@code auth:gen:<scope>:<id>} and expire one refresh-token
+ * lifetime after the last revocation, when no token stamped before it can still be valid.
+ * Unlike a counter, a generation that expired and is set again only ever moves forward. Each
+ * instance caches the generations it has seen and receives revocations over pub/sub. The keys
+ * need a Redis that does not evict ({@code maxmemory-policy noeviction}); an evicted generation
+ * would silently un-revoke its tokens. When Redis errors during a check, {@code fail-open}
+ * decides whether the token is allowed or rejected.
+ */
+@Component
+@Slf4j
+public class TokenGenerationService implements MessageListener {
+
+    private static final String GENERATION_PREFIX = "auth:gen:";
+    private static final String GENERATION_CHANNEL = "auth:generations";
+    private static final String USER_SCOPE = "user:";
+    private static final String SESSION_SCOPE = "session:";
+    private static final String SEPARATOR = "|";
+
+    // KEYS: generation. Returns the server time in millis, but always above the generation.
+    private static final RedisScript<Long> STAMP_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local revoked = tonumber(redis.call('GET', KEYS[1]) or '0')
+            return math.max(now, revoked + 1)
+            """, Long.class);
+
+    // KEYS: generation. ARGV: ttl millis. Moves the generation to the server time, and at least
+    // past every stamp handed out so far, so a token stamped in the same millisecond is revoked too.
+    private static final RedisScript<Long> REVOKE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local generation = math.max(now, current + 1)
+            redis.call('SET', KEYS[1], string.format('%d', generation), 'PX', ARGV[1])
+            return generation
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long refreshTokenExpiration;
+    private final boolean failOpen;
+    private final boolean redisAvailable;
+
+    private final LoadingCache<String, Long> generations;
+    // Used instead of Redis when it is not reachable
+    private final Map<String, Long> localGenerations = new ConcurrentHashMap<>();
+
+    public TokenGenerationService(RedisTemplate<String, String> redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  @Value("${app.security.jwt.refresh-token.expiration}") long refreshTokenExpiration,
+                                  @Value("${app.security.jwt.generation-cache.max-size:100000}") long cacheMaxSize,
+                                  @Value("${app.security.jwt.generation-cache.ttl:300000}") long cacheTtl,
+                                  @Value("${app.security.jwt.generation-check.fail-open:true}") boolean failOpen) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.refreshTokenExpiration = refreshTokenExpiration;
+        this.failOpen = failOpen;
+        this.redisAvailable = testRedisConnection();
+        if (redisAvailable && RedisEvictionPolicy.evicts(redisTemplate)) {
+            log.warn("Redis may evict keys (maxmemory-policy {}), evicted token generations un-revoke their tokens",
+                    RedisEvictionPolicy.of(redisTemplate).orElse("unknown"));
+        }
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtl))
+                .build(this::loadGeneration);
+    }
+
+    private boolean testRedisConnection() {
+        try {
+            redisTemplate.hasKey("test:connection");
+            return true;
+        } catch (Exception e) {
+            log.warn("Redis not available, token generations will only be tracked locally: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (redisAvailable) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(GENERATION_CHANNEL));
+        }
+    }
+
+    /**
+     * Generation to stamp on a token issued now for the user
+     */
+    public long currentUserGeneration(String userId) {
+        return stamp(userId != null ? USER_SCOPE + userId : null);
+    }
+
+    /**
+     * Generation to stamp on a token issued now for the session
+     */
+    public long currentSessionGeneration(String sessionId) {
+        return stamp(sessionId != null ? SESSION_SCOPE + sessionId : null);
+    }
+
+    /**
+     * Revoke every token issued so far for the user
+     */
+    public void revokeUser(String userId) {
+        revoke(USER_SCOPE + userId);
+    }
+
+    /**
+     * Revoke every token issued so far for the session
+     */
+    public void revokeSession(String sessionId) {
+        revoke(SESSION_SCOPE + sessionId);
+    }
+
+    /**
+     * A token is stale once either of its generations is at or behind the latest revocation
+     */
+    public boolean isStale(VerifiedToken token) {
+        return isRevoked(token.subject() != null ? USER_SCOPE + token.subject() : null, token.userGeneration())
+                || isRevoked(token.sessionId() != null ? SESSION_SCOPE + token.sessionId() : null, token.sessionGeneration());
+    }
+
+    private boolean isRevoked(String key, long generation) {
+        if (key == null) {
+            return false;
+        }
+        long revokedBefore;
+        try {
+            revokedBefore = generations.get(key);
+        } catch (Exception e) {
+            // Not cached, so the next check asks Redis again instead of trusting this answer for the cache TTL
+            log.warn("Redis not available for token generation check, {} token: {}",
+                    failOpen ? "allowing" : "rejecting", e.getMessage());
+            return !failOpen;
+        }
+        // 0 means never revoked; tokens issued before generations existed carry 0 as well
+        return revokedBefore > 0 && generation <= revokedBefore;
+    }
+
+    private long stamp(String key) {
+        if (key == null) {
+            return System.currentTimeMillis();
+        }
+        if (redisAvailable) {
+            try {
+                Long stamp = redisTemplate.execute(STAMP_SCRIPT, List.of(GENERATION_PREFIX + key));
+                if (stamp != null) {
+                    return stamp;
+                }
+            } catch (Exception e) {
+                log.warn("Redis not available for token generation stamp, using local clock: {}", e.getMessage());
+            }
+        }
+        Long known = redisAvailable ? generations.getIfPresent(key) : localGenerations.get(key);
+        return Math.max(System.currentTimeMillis(), (known != null ? known : 0L) + 1);
+    }
+
+    private void revoke(String key) {
+        if (!redisAvailable) {
+            long generation = localGenerations.merge(key, System.currentTimeMillis(),
+                    (current, now) -> Math.max(now, current + 1));
+            generations.put(key, generation);
+            return;
+        }
+
+        try {
+            Long generation = redisTemplate.execute(REVOKE_SCRIPT, List.of(GENERATION_PREFIX + key),
+                    String.valueOf(refreshTokenExpiration));
+            if (generation != null) {
+                generations.asMap().merge(key, generation, Math::max);
+                redisTemplate.convertAndSend(GENERATION_CHANNEL, key + SEPARATOR + generation);
+            }
+        } catch (Exception e) {
+            log.warn("Error revoking token generation for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Long loadGeneration(String key) {
+        if (!redisAvailable) {
+            return localGenerations.getOrDefault(key, 0L);
+        }
+        String value = redisTemplate.opsForValue().get(GENERATION_PREFIX + key);
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(SEPARATOR);
+        if (separator <= 0) {
+            log.warn("Ignoring malformed token generation message: {}", body);
+            return;
+        }
+        try {
+            long generation = Long.parseLong(body.substring(separator + 1));
+            generations.asMap().merge(body.substring(0, separator), generation, Math::max);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed token generation message: {}", body);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.learn.desifans_user_service.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process view of revoked token ids.
+ *
+ * Redis stays the source of truth: revocations are written to {@code auth:blacklist:<tokenId>}
+ * and broadcast on {@value #REVOCATION_CHANNEL} so every instance adds them to its local set.
+ * Lookups never leave the process; a Bloom filter answers the common "never revoked" case
+ * before the set is consulted. Entries are dropped once the token itself has expired.
+ *
+ * Messages missed while disconnected are picked up by a periodic SCAN of the blacklist keys,
+ * which also re-probes Redis, subscribes once it is reachable and writes out revocations that
+ * could only be kept locally.
+ */
+@Component
+@Slf4j
+public class TokenRevocationCache implements MessageListener {
+
+    private static final String BLACKLIST_PREFIX = "auth:blacklist:";
+    private static final String REVOCATION_CHANNEL = "auth:revocations";
+    private static final String SEPARATOR = "|";
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private volatile boolean redisAvailable;
+    private volatile boolean subscribed;
+
+    // tokenId -> token expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // Revocations not yet written to Redis because it was unreachable
+    private final Map<String, Long> unpublished = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+
+    public TokenRevocationCache(RedisTemplate<String, String> redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                @Value("${app.security.jwt.revocation.expected-entries:100000}") int expectedRevocations,
+                                @Value("${app.security.jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.redisAvailable = testRedisConnection();
+        if (!redisAvailable) {
+            log.warn("Redis not available, token revocations will only be tracked locally until it is reachable");
+        }
+    }
+
+    private boolean testRedisConnection() {
+        try {
+            redisTemplate.hasKey("test:connection");
+            return true;
+        } catch (Exception e) {
+            log.debug("Redis connection test failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Subscribe first, then load existing revocations, so nothing published in between is missed
+     */
+    @PostConstruct
+    void initialize() {
+        if (!redisAvailable) {
+            return;
+        }
+        subscribe();
+        log.info("Loaded {} revoked token(s) into local revocation cache", load());
+    }
+
+    /**
+     * Re-probe Redis and resync with it: subscribe if that failed before, write out revocations
+     * kept locally while it was down, and reload the blacklist to catch messages missed meanwhile
+     */
+    @Scheduled(initialDelayString = "${app.security.jwt.revocation.reconcile-interval:60000}",
+            fixedDelayString = "${app.security.jwt.revocation.reconcile-interval:60000}")
+    public void reconcile() {
+        boolean wasAvailable = redisAvailable;
+        redisAvailable = testRedisConnection();
+        if (!redisAvailable) {
+            if (wasAvailable) {
+                log.warn("Redis not available, token revocations will only be tracked locally until it is reachable");
+            }
+            return;
+        }
+        if (!wasAvailable) {
+            log.info("Redis reachable again, resyncing token revocations");
+        }
+        if (!subscribed) {
+            subscribe();
+        }
+        publishUnpublished();
+        int loaded = load();
+        log.debug("Reconciled {} revoked token(s) from Redis", loaded);
+    }
+
+    private void subscribe() {
+        try {
+            listenerContainer.addMessageListener(this, new ChannelTopic(REVOCATION_CHANNEL));
+            subscribed = true;
+        } catch (Exception e) {
+            log.warn("Could not subscribe to token revocations: {}", e.getMessage());
+        }
+    }
+
+    // Adds every blacklisted token id to the local set, reading the TTLs a batch at a time
+    private int load() {
+        int loaded = 0;
+        try (Cursor<String> keys = redisTemplate.scan(ScanOptions.scanOptions()
+                .match(BLACKLIST_PREFIX + "*")
+                .count(SCAN_BATCH_SIZE)
+                .build())) {
+            List<String> batch = new ArrayList<>(SCAN_BATCH_SIZE);
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+                if (batch.size() == SCAN_BATCH_SIZE || !keys.hasNext()) {
+                    loaded += loadBatch(batch);
+                    batch.clear();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not load token revocations from Redis: {}", e.getMessage());
+        }
+        return loaded;
+    }
+
+    private int loadBatch(List<String> keys) {
+        long now = System.currentTimeMillis();
+        List<Object> ttls = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> stringOperations = (RedisOperations<String, String>) operations;
+                keys.forEach(key -> stringOperations.getExpire(key, TimeUnit.MILLISECONDS));
+                return null;
+            }
+        });
+
+        int loaded = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (ttls.get(i) instanceof Long ttlMillis && ttlMillis > 0) {
+                addLocal(keys.get(i).substring(BLACKLIST_PREFIX.length()), now + ttlMillis);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    private void publishUnpublished() {
+        unpublished.forEach((tokenId, expiresAtMillis) -> {
+            if (expiresAtMillis <= System.currentTimeMillis() || publish(tokenId, expiresAtMillis)) {
+                unpublished.remove(tokenId, expiresAtMillis);
+            }
+        });
+    }
+
+    /**
+     * Revoke a token until its expiry, locally and for every other instance
+     */
+    public void revoke(String tokenId, Instant expiresAt) {
+        long expiresAtMillis = expiresAt.toEpochMilli();
+        long ttlMillis = expiresAtMillis - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return;
+        }
+
+        addLocal(tokenId, expiresAtMillis);
+
+        if (!redisAvailable) {
+            log.debug("Redis not available, token revocation kept local until it is reachable");
+            unpublished.put(tokenId, expiresAtMillis);
+            return;
+        }
+
+        if (!publish(tokenId, expiresAtMillis)) {
+            unpublished.put(tokenId, expiresAtMillis);
+        }
+    }
+
+    private boolean publish(String tokenId, long expiresAtMillis) {
+        long ttlMillis = expiresAtMillis - System.currentTimeMillis();
+        if (ttlMillis <= 0) {
+            return true;
+        }
+        try {
+            redisTemplate.opsForValue().set(BLACKLIST_PREFIX + tokenId, "blacklisted", ttlMillis, TimeUnit.MILLISECONDS);
+            redisTemplate.convertAndSend(REVOCATION_CHANNEL, tokenId + SEPARATOR + expiresAtMillis);
+            return true;
+        } catch (Exception e) {
+            // Log error but don't throw - blacklisting failure shouldn't break the flow
+            log.warn("Error publishing token revocation, retrying on the next reconcile: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Check revocation without any network call
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(SEPARATOR);
+        if (separator <= 0) {
+            log.warn("Ignoring malformed revocation message: {}", body);
+            return;
+        }
+        try {
+            addLocal(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed revocation message: {}", body);
+        }
+    }
+
+    private synchronized void addLocal(String tokenId, long expiresAtMillis) {
+        revoked.merge(tokenId, expiresAtMillis, Math::max);
+        bloomFilter.put(tokenId);
+    }
+
+    /**
+     * Drop revocations of tokens that have expired anyway and rebuild the Bloom filter,
+     * which cannot forget entries on its own
+     */
+    @Scheduled(fixedDelayString = "${app.security.jwt.revocation.purge-interval:300000}")
+    public synchronized void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        unpublished.values().removeIf(expiresAt -> expiresAt <= now);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        this.bloomFilter = rebuilt;
+
+        if (before != revoked.size()) {
+            log.debug("Purged {} expired token revocation(s)", before - revoked.size());
+        }
+    }
+}
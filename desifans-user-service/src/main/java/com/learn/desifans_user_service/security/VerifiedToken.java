@@ -0,0 +1,30 @@
+package com.learn.desifans_user_service.security;
+
+import java.time.Instant;
+
+/**
+ * Immutable result of a successful token verification.
+ * Holds the claims the service needs on every request so callers never have to decode the JWT again.
+ */
+public record VerifiedToken(
+        String subject,
+        String sessionId,
+        String role,
+        String type,
+        String tokenId,
+        long userGeneration,
+        long sessionGeneration,
+        Instant expiresAt) {
+
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+
+    public boolean isAccessToken() {
+        return "ACCESS_TOKEN".equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return "REFRESH_TOKEN".equals(type);
+    }
+}
@@ -0,0 +1,114 @@
+package com.learn.desifans_user_service.service;
+
+import com.learn.desifans_user_service.repository.UserRepository;
+import com.learn.desifans_user_service.repository.UserSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces user and session activity timestamps in memory and writes them out periodically.
+ *
+ * Recording activity is a map merge that keeps the latest timestamp per user and session, so
+ * a client making many requests costs one write per flush instead of one per request. Each
+ * flush sends one unordered bulk write per collection using $max, so out-of-order flushes
+ * from different instances can never move a timestamp backwards.
+ */
+@Component
+@Slf4j
+public class ActivityTracker {
+
+    private final UserRepository userRepository;
+    private final UserSessionRepository sessionRepository;
+
+    private final Map<String, Long> userActivity = new ConcurrentHashMap<>();
+    private final Map<String, Long> sessionActivity = new ConcurrentHashMap<>();
+
+    private final Timer flushTimer;
+    private final Counter flushedCounter;
+
+    public ActivityTracker(UserRepository userRepository,
+                           UserSessionRepository sessionRepository,
+                           MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.sessionRepository = sessionRepository;
+
+        Gauge.builder("activity.buffer.size", this, tracker -> tracker.userActivity.size() + tracker.sessionActivity.size())
+                .description("Users and sessions with activity waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("activity.flush")
+                .description("Time to write buffered activity timestamps")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("activity.flushed")
+                .description("Activity timestamps written to MongoDB")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record that a user, and optionally one of their sessions, was active now
+     */
+    public void recordActivity(String userId, String sessionId) {
+        long now = System.currentTimeMillis();
+        if (userId != null) {
+            userActivity.merge(userId, now, Math::max);
+        }
+        if (sessionId != null) {
+            sessionActivity.merge(sessionId, now, Math::max);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.session.activity.flush-interval:5000}")
+    public void flush() {
+        Map<String, LocalDateTime> users = drain(userActivity);
+        Map<String, LocalDateTime> sessions = drain(sessionActivity);
+        if (users.isEmpty() && sessions.isEmpty()) {
+            return;
+        }
+
+        try {
+            flushTimer.record(() -> {
+                userRepository.touchLastActiveAt(users);
+                sessionRepository.touchLastActivity(sessions);
+            });
+            flushedCounter.increment(users.size() + sessions.size());
+        } catch (Exception e) {
+            // Put the timestamps back; $max makes a later retry safe
+            users.forEach((id, at) -> userActivity.merge(id, toEpochMillis(at), Math::max));
+            sessions.forEach((id, at) -> sessionActivity.merge(id, toEpochMillis(at), Math::max));
+            log.warn("Failed to write activity timestamps, will retry: {}", e.getMessage());
+        }
+    }
+
+    // Removing entry by entry means activity recorded during the flush waits for the next one
+    private static Map<String, LocalDateTime> drain(Map<String, Long> buffer) {
+        Map<String, LocalDateTime> drained = new HashMap<>();
+        for (String id : buffer.keySet()) {
+            Long at = buffer.remove(id);
+            if (at != null) {
+                drained.put(id, LocalDateTime.ofInstant(Instant.ofEpochMilli(at), ZoneId.systemDefault()));
+            }
+        }
+        return drained;
+    }
+
+    private static long toEpochMillis(LocalDateTime value) {
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,118 @@
+package com.learn.desifans_user_service.service;
+
+import com.learn.desifans_user_service.cache.PublicProfileCache;
+import com.learn.desifans_user_service.dto.CursorPage;
+import com.learn.desifans_user_service.dto.PublicProfile;
+import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.model.UserRole;
+import com.learn.desifans_user_service.model.UserStatus;
+import com.learn.desifans_user_service.repository.KeysetCursor;
+import com.learn.desifans_user_service.repository.UserRepository;
+import com.learn.desifans_user_service.repository.UserSort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+
+/**
+ * Creator listings for browsing, paged with opaque keyset cursors. Each page reads one
+ * extra document to learn whether another page follows, and totals are only counted for
+ * callers that ask for them. Ranked discovery pages come from {@link CreatorRankings} and
+ * are hydrated from the public-profile cache.
+ */
+@Service
+@RequiredArgsConstructor
+public class CreatorDirectoryService {
+
+    // Ranked cursors hold a rank offset rather than a sort value
+    private static final String RANK_CURSOR_PREFIX = "rank:";
+
+    private final UserRepository userRepository;
+    private final CreatorRankings creatorRankings;
+    private final PublicProfileCache publicProfileCache;
+
+    /**
+     * Top creators overall or in one category by ranking score. Reads the page of ids from
+     * the Redis ranking and the profiles from cache; without Redis it falls back to the most
+     * subscribed creators from Mongo.
+     */
+    public CursorPage<PublicProfile> listTopCreators(String category, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        boolean rankedCursor = after == null || after.sortValue().startsWith(RANK_CURSOR_PREFIX);
+        long offset = after == null ? 0 : rankOffset(after);
+
+        Optional<List<String>> ids = rankedCursor
+                ? creatorRankings.topCreatorIds(category, offset, limit + 1)
+                : Optional.empty();
+        if (ids.isEmpty()) {
+            return listCreators(category, false, UserSort.POPULAR, rankedCursor ? null : cursor, limit, false);
+        }
+
+        List<String> pageIds = ids.get().subList(0, Math.min(limit, ids.get().size()));
+        String nextCursor = ids.get().size() > limit
+                ? new KeysetCursor(RANK_CURSOR_PREFIX + (offset + limit), pageIds.get(pageIds.size() - 1)).encode()
+                : null;
+        List<PublicProfile> profiles = publicProfileCache.getAll(pageIds, missing ->
+                userRepository.findPublicProfileViewsByIds(missing).stream().map(PublicProfile::fromUser).toList());
+        return CursorPage.<PublicProfile>builder()
+                .items(profiles)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static long rankOffset(KeysetCursor cursor) {
+        if (!cursor.sortValue().startsWith(RANK_CURSOR_PREFIX)) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(cursor.sortValue().substring(RANK_CURSOR_PREFIX.length())));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /**
+     * Active creators, optionally only one category or only verified creators
+     */
+    public CursorPage<PublicProfile> listCreators(String category, boolean verifiedOnly, UserSort sort,
+                                                  String cursor, int limit, boolean includeTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (category != null && !category.isBlank()) {
+            return toPage(userRepository.findActiveCreatorsByCategory(category, sort, after, limit + 1),
+                    sort, limit, includeTotal, () -> userRepository.countActiveCreatorsByCategory(category));
+        }
+        if (verifiedOnly) {
+            return toPage(userRepository.findVerifiedCreators(sort, after, limit + 1),
+                    sort, limit, includeTotal, userRepository::countVerifiedCreators);
+        }
+        return toPage(userRepository.findByRoleAndStatus(UserRole.CREATOR, UserStatus.ACTIVE, sort, after, limit + 1),
+                sort, limit, includeTotal, () -> userRepository.countByRoleAndStatus(UserRole.CREATOR, UserStatus.ACTIVE));
+    }
+
+    /**
+     * Active creators priced within the range, cheapest first
+     */
+    public CursorPage<PublicProfile> listCreatorsByPrice(BigDecimal minPrice, BigDecimal maxPrice,
+                                                         String cursor, int limit, boolean includeTotal) {
+        if (minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("Minimum price must not exceed maximum price");
+        }
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return toPage(userRepository.findCreatorsByPriceRange(minPrice, maxPrice, after, limit + 1),
+                UserSort.PRICE, limit, includeTotal, () -> userRepository.countCreatorsByPriceRange(minPrice, maxPrice));
+    }
+
+    private static CursorPage<PublicProfile> toPage(List<User> users, UserSort sort, int limit,
+                                                    boolean includeTotal, LongSupplier total) {
+        List<User> page = users.subList(0, Math.min(limit, users.size()));
+        String nextCursor = users.size() > limit ? sort.cursorAfter(page.get(page.size() - 1)).encode() : null;
+        return CursorPage.<PublicProfile>builder()
+                .items(page.stream().map(PublicProfile::fromUser).toList())
+                .nextCursor(nextCursor)
+                .total(includeTotal ? total.getAsLong() : null)
+                .build();
+    }
+}
@@ -0,0 +1,378 @@
+package com.learn.desifans_user_service.service;
+
+import com.learn.desifans_user_service.model.CreatorProfile;
+import com.learn.desifans_user_service.model.CreatorStatistics;
+import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.repository.UserRepository;
+import com.learn.desifans_user_service.search.SearchTokenizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Creator discovery rankings kept in Redis sorted sets: one over all active creators and one
+ * per category, so a ranked page is a single O(log n + k) range read.
+ *
+ * A creator's score is a weighted sum over its statistics, with counts log-scaled so a few
+ * huge accounts do not flatten everyone else:
+ * {@code subscribers * log10(1 + subscriberCount) + likes * log10(1 + likeCount)
+ * + views * log10(1 + viewCount) + rating * averageRating}. The weights are configuration.
+ *
+ * Changes saved through this service update the sets incrementally, moving a creator between
+ * category sets when its category changes. Statistics are maintained elsewhere, so a periodic
+ * rebuild streams every active creator into staging keys private to that run and swaps them
+ * in; one instance rebuilds at a time. An incremental update that lands during a rebuild can be overwritten by
+ * it and is corrected by the next one.
+ */
+@Component
+@Slf4j
+public class CreatorRankings {
+
+    static final String GLOBAL_KEY = "rank:creators:all";
+    static final String CATEGORY_PREFIX = "rank:creators:cat:";
+    static final String CATEGORY_OF_KEY = "rank:creators:category-of";
+    static final String CATEGORIES_KEY = "rank:creators:categories";
+    private static final String STAGING_PREFIX = "rank:creators:staging:";
+    private static final String LOCK_KEY = "rank:creators:rebuild:lock";
+
+    // KEYS: global set, category-of hash, categories set
+    // ARGV: userId, score ('' removes the creator), category ('' for none), category key prefix
+    private static final RedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>("""
+            local previous = redis.call('HGET', KEYS[2], ARGV[1])
+            if previous and previous ~= ARGV[3] then
+              redis.call('ZREM', ARGV[4] .. previous, ARGV[1])
+            end
+            if ARGV[2] == '' then
+              redis.call('ZREM', KEYS[1], ARGV[1])
+              redis.call('HDEL', KEYS[2], ARGV[1])
+              return 0
+            end
+            redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+            if ARGV[3] == '' then
+              redis.call('HDEL', KEYS[2], ARGV[1])
+            else
+              redis.call('ZADD', ARGV[4] .. ARGV[3], ARGV[2], ARGV[1])
+              redis.call('HSET', KEYS[2], ARGV[1], ARGV[3])
+              redis.call('SADD', KEYS[3], ARGV[3])
+            end
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long rebuildLeaseMillis;
+    private final double subscribersWeight;
+    private final double likesWeight;
+    private final double viewsWeight;
+    private final double ratingWeight;
+    private final boolean redisAvailable;
+
+    private final Timer rebuildTimer;
+
+    public CreatorRankings(RedisTemplate<String, String> redisTemplate,
+                           UserRepository userRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.creators.ranking.enabled:true}") boolean enabled,
+                           @Value("${app.creators.ranking.batch-size:1000}") int batchSize,
+                           @Value("${app.creators.ranking.rebuild-lease:600000}") long rebuildLeaseMillis,
+                           @Value("${app.creators.ranking.weights.subscribers:1.0}") double subscribersWeight,
+                           @Value("${app.creators.ranking.weights.likes:0.3}") double likesWeight,
+                           @Value("${app.creators.ranking.weights.views:0.1}") double viewsWeight,
+                           @Value("${app.creators.ranking.weights.rating:0.5}") double ratingWeight) {
+        this.redisTemplate = redisTemplate;
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.rebuildLeaseMillis = rebuildLeaseMillis;
+        this.subscribersWeight = subscribersWeight;
+        this.likesWeight = likesWeight;
+        this.viewsWeight = viewsWeight;
+        this.ratingWeight = ratingWeight;
+        this.redisAvailable = testRedisConnection();
+        this.rebuildTimer = Timer.builder("creators.ranking.rebuild")
+                .description("Time to rebuild the creator ranking sets")
+                .register(meterRegistry);
+    }
+
+    private boolean testRedisConnection() {
+        try {
+            redisTemplate.hasKey("test:connection");
+            return true;
+        } catch (Exception e) {
+            log.warn("Redis not available, creator rankings will be served from MongoDB: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Whether ranked reads can be served from Redis
+     */
+    public boolean isAvailable() {
+        return enabled && redisAvailable;
+    }
+
+    /**
+     * Creator ids ranked {@code offset} to {@code offset + count - 1}, best first, over all
+     * creators or one category. Empty when Redis cannot answer; callers fall back to Mongo.
+     */
+    public Optional<List<String>> topCreatorIds(String category, long offset, int count) {
+        if (!isAvailable()) {
+            return Optional.empty();
+        }
+        try {
+            Set<String> ids = redisTemplate.opsForZSet().reverseRange(keyFor(category), offset, offset + count - 1);
+            return Optional.of(ids != null ? new ArrayList<>(ids) : List.of());
+        } catch (Exception e) {
+            log.warn("Creator ranking read failed, falling back to MongoDB: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        User user = event.user();
+        if (!isAvailable() || user.getId() == null) {
+            return;
+        }
+        boolean ranked = user.isCreator() && user.isActive() && user.getCreatorProfile() != null;
+        try {
+            redisTemplate.execute(UPDATE_SCRIPT, List.of(GLOBAL_KEY, CATEGORY_OF_KEY, CATEGORIES_KEY),
+                    user.getId(),
+                    ranked ? String.valueOf(scoreOf(user)) : "",
+                    ranked ? categoryOf(user) : "",
+                    CATEGORY_PREFIX);
+        } catch (Exception e) {
+            log.warn("Creator ranking update failed for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            if (isAvailable() && !Boolean.TRUE.equals(redisTemplate.hasKey(GLOBAL_KEY))) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.warn("Creator ranking startup check failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.creators.ranking.rebuild-interval:900000}",
+               fixedDelayString = "${app.creators.ranking.rebuild-interval:900000}")
+    public void rebuild() {
+        if (!isAvailable()) {
+            return;
+        }
+        Optional<RedisLease> lease;
+        try {
+            lease = RedisLease.acquire(redisTemplate, LOCK_KEY, Duration.ofMillis(rebuildLeaseMillis));
+        } catch (Exception e) {
+            log.warn("Creator ranking rebuild lock failed: {}", e.getMessage());
+            return;
+        }
+        if (lease.isEmpty()) {
+            return;
+        }
+
+        Staging staging = new Staging(STAGING_PREFIX + UUID.randomUUID() + ":");
+        try {
+            rebuildTimer.record(() -> rebuildSets(staging));
+        } catch (Exception e) {
+            log.warn("Creator ranking rebuild failed, keeping the current sets: {}", e.getMessage());
+        } finally {
+            staging.discard();
+            lease.get().release();
+        }
+    }
+
+    /**
+     * Keys written by one rebuild, under a namespace of their own so nothing a failed run left
+     * behind can be swapped in by a later one. They expire with the rebuild lease as well.
+     */
+    private final class Staging {
+
+        private final String prefix;
+        private final Set<String> keys = new HashSet<>();
+
+        Staging(String prefix) {
+            this.prefix = prefix;
+        }
+
+        String globalKey() {
+            return prefix + "all";
+        }
+
+        String categoryOfKey() {
+            return prefix + "category-of";
+        }
+
+        String categoryKey(String category) {
+            return prefix + "cat:" + category;
+        }
+
+        // Whether the key is new to this run and still needs its expiry
+        boolean track(String key) {
+            return keys.add(key);
+        }
+
+        void forget(String key) {
+            keys.remove(key);
+        }
+
+        void discard() {
+            if (keys.isEmpty()) {
+                return;
+            }
+            try {
+                redisTemplate.delete(keys);
+            } catch (Exception e) {
+                log.warn("Error deleting creator ranking staging keys, they expire on their own: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void rebuildSets(Staging staging) {
+        Set<String> previousCategories = Optional.ofNullable(redisTemplate.opsForSet().members(CATEGORIES_KEY))
+                .orElse(Set.of());
+        Set<String> categories = new HashSet<>();
+
+        long ranked = 0;
+        try (Stream<User> creators = userRepository.streamRankableCreators()) {
+            Iterator<User> iterator = creators.iterator();
+            Map<String, User> batch = new HashMap<>();
+            while (iterator.hasNext()) {
+                User creator = iterator.next();
+                batch.put(creator.getId(), creator);
+                if (batch.size() >= batchSize) {
+                    writeStaging(staging, batch, categories);
+                    ranked += batch.size();
+                    batch.clear();
+                }
+            }
+            writeStaging(staging, batch, categories);
+            ranked += batch.size();
+        }
+
+        swapIn(staging, categories, previousCategories, ranked > 0);
+        log.debug("Creator rankings rebuilt with {} creators in {} categories", ranked, categories.size());
+    }
+
+    private void writeStaging(Staging staging, Map<String, User> batch, Set<String> categories) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Duration expiry = Duration.ofMillis(rebuildLeaseMillis);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+                batch.forEach((userId, creator) -> {
+                    double score = scoreOf(creator);
+                    addScore(redis, staging, staging.globalKey(), userId, score, expiry);
+                    String category = categoryOf(creator);
+                    if (!category.isEmpty()) {
+                        addScore(redis, staging, staging.categoryKey(category), userId, score, expiry);
+                        redis.opsForHash().put(staging.categoryOfKey(), userId, category);
+                        if (staging.track(staging.categoryOfKey())) {
+                            redis.expire(staging.categoryOfKey(), expiry);
+                        }
+                        categories.add(category);
+                    }
+                });
+                return null;
+            }
+        });
+    }
+
+    private static void addScore(RedisOperations<String, String> redis, Staging staging, String key,
+                                 String userId, double score, Duration expiry) {
+        redis.opsForZSet().add(key, userId, score);
+        if (staging.track(key)) {
+            redis.expire(key, expiry);
+        }
+    }
+
+    private void swapIn(Staging staging, Set<String> categories, Set<String> previousCategories, boolean anyRanked) {
+        if (anyRanked) {
+            swap(staging, staging.globalKey(), GLOBAL_KEY);
+        } else {
+            redisTemplate.delete(GLOBAL_KEY);
+        }
+        if (!categories.isEmpty()) {
+            swap(staging, staging.categoryOfKey(), CATEGORY_OF_KEY);
+        } else {
+            redisTemplate.delete(CATEGORY_OF_KEY);
+        }
+        for (String category : categories) {
+            swap(staging, staging.categoryKey(category), CATEGORY_PREFIX + category);
+        }
+
+        List<String> emptied = previousCategories.stream()
+                .filter(category -> !categories.contains(category))
+                .map(category -> CATEGORY_PREFIX + category)
+                .toList();
+        if (!emptied.isEmpty()) {
+            redisTemplate.delete(emptied);
+        }
+        redisTemplate.delete(CATEGORIES_KEY);
+        if (!categories.isEmpty()) {
+            redisTemplate.opsForSet().add(CATEGORIES_KEY, categories.toArray(new String[0]));
+        }
+    }
+
+    // Live sets never expire, so the staging expiry is dropped once the key is in place
+    private void swap(Staging staging, String stagingKey, String liveKey) {
+        redisTemplate.rename(stagingKey, liveKey);
+        redisTemplate.persist(liveKey);
+        staging.forget(stagingKey);
+    }
+
+    private double scoreOf(User creator) {
+        CreatorStatistics statistics = creator.getCreatorProfile().getStatistics();
+        if (statistics == null) {
+            return 0;
+        }
+        return subscribersWeight * Math.log10(1 + statistics.getSubscriberCount())
+                + likesWeight * Math.log10(1 + statistics.getLikeCount())
+                + viewsWeight * Math.log10(1 + statistics.getViewCount())
+                + ratingWeight * statistics.getAverageRating();
+    }
+
+    private static String categoryOf(User creator) {
+        CreatorProfile creatorProfile = creator.getCreatorProfile();
+        return creatorProfile != null ? normalizeCategory(creatorProfile.getCategory()) : "";
+    }
+
+    static String normalizeCategory(String category) {
+        return SearchTokenizer.normalize(category).trim();
+    }
+
+    private static String keyFor(String category) {
+        return category == null || category.isBlank() ? GLOBAL_KEY : CATEGORY_PREFIX + normalizeCategory(category);
+    }
+}
@@ -0,0 +1,56 @@
+package com.learn.desifans_user_service.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * A lock on a Redis key held under a random token for at most the lease. Only the holder's
+ * token can release it, so a run that outlives its lease never frees a lock another instance
+ * has taken since.
+ */
+@Slf4j
+final class RedisLease {
+
+    // KEYS: lock. ARGV: token. Deletes the lock only if it still holds the token.
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String key;
+    private final String token;
+
+    private RedisLease(RedisTemplate<String, String> redisTemplate, String key, String token) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.token = token;
+    }
+
+    /**
+     * Take the lock, or empty if another holder has it. Redis errors propagate to the caller.
+     */
+    static Optional<RedisLease> acquire(RedisTemplate<String, String> redisTemplate, String key, Duration lease) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(key, token, lease);
+        return Boolean.TRUE.equals(acquired) ? Optional.of(new RedisLease(redisTemplate, key, token)) : Optional.empty();
+    }
+
+    void release() {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key), token);
+        } catch (Exception e) {
+            // The lease runs out on its own
+            log.warn("Error releasing lock {}: {}", key, e.getMessage());
+        }
+    }
+}
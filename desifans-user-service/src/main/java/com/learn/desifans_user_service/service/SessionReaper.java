@@ -0,0 +1,190 @@
+package com.learn.desifans_user_service.service;
+
+import com.learn.desifans_user_service.model.UserSession;
+import com.learn.desifans_user_service.repository.UserSessionRepository;
+import com.learn.desifans_user_service.security.JwtTokenService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Background cleanup of dead sessions in the user_sessions collection.
+ *
+ * Expired sessions are left to the TTL index on expiresAt. Each run streams candidate ids
+ * through a cursor with {@code batch-size} documents per batch and handles them a batch at a
+ * time: sessions inactive past the retention period are deleted (optionally archived first)
+ * with one bulk operation per batch, and, when an idle timeout is set, active sessions idle
+ * for longer are deactivated and their tokens revoked. Work is paced to {@code max-per-second}
+ * and cut off after {@code max-run-time}, so the reaper never competes with foreground
+ * traffic. A Redis lock, released as soon as the run ends, keeps instances from reaping the
+ * same documents at once.
+ */
+@Component
+@Slf4j
+public class SessionReaper {
+
+    private static final String LOCK_KEY = "session:reaper:lock";
+    private static final String INACTIVE = "inactive";
+    private static final String IDLE = "idle";
+
+    private final UserSessionRepository sessionRepository;
+    private final SessionStore sessionStore;
+    private final JwtTokenService jwtTokenService;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final boolean archive;
+    private final int batchSize;
+    private final int maxPerSecond;
+    private final long maxRunMillis;
+    private final long inactiveRetentionMillis;
+    private final long idleTimeoutMillis;
+
+    private final Timer runTimer;
+    private final AtomicLong inactiveBacklog = new AtomicLong();
+
+    public SessionReaper(UserSessionRepository sessionRepository,
+                         SessionStore sessionStore,
+                         JwtTokenService jwtTokenService,
+                         RedisTemplate<String, String> redisTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.security.session.reaper.enabled:true}") boolean enabled,
+                         @Value("${app.security.session.reaper.archive:false}") boolean archive,
+                         @Value("${app.security.session.reaper.batch-size:500}") int batchSize,
+                         @Value("${app.security.session.reaper.max-per-second:2000}") int maxPerSecond,
+                         @Value("${app.security.session.reaper.max-run-time:300000}") long maxRunMillis,
+                         @Value("${app.security.session.reaper.inactive-retention:2592000000}") long inactiveRetentionMillis,
+                         @Value("${app.security.session.reaper.idle-timeout:0}") long idleTimeoutMillis) {
+        this.sessionRepository = sessionRepository;
+        this.sessionStore = sessionStore;
+        this.jwtTokenService = jwtTokenService;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.archive = archive;
+        this.batchSize = batchSize;
+        this.maxPerSecond = maxPerSecond;
+        this.maxRunMillis = maxRunMillis;
+        this.inactiveRetentionMillis = inactiveRetentionMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+
+        this.runTimer = Timer.builder("session.reaper.run")
+                .description("Duration of session reaper runs")
+                .register(meterRegistry);
+        Gauge.builder("session.reaper.backlog", inactiveBacklog, AtomicLong::get)
+                .tag("reason", INACTIVE)
+                .description("Sessions still eligible for reaping after the last run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.security.session.reaper.initial-delay:60000}",
+               fixedDelayString = "${app.security.session.reaper.interval:600000}")
+    public void reap() {
+        if (!enabled) {
+            return;
+        }
+        Optional<RedisLease> lease;
+        try {
+            lease = RedisLease.acquire(redisTemplate, LOCK_KEY, Duration.ofMillis(maxRunMillis));
+            if (lease.isEmpty()) {
+                return;
+            }
+        } catch (Exception e) {
+            // Without Redis every instance reaps; deletes are idempotent
+            lease = Optional.empty();
+        }
+
+        try {
+            runTimer.record(() -> {
+                long deadline = System.currentTimeMillis() + maxRunMillis;
+                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime inactiveCutoff = now.minus(Duration.ofMillis(inactiveRetentionMillis));
+
+                reap(INACTIVE, sessionRepository.streamInactiveSessionIds(inactiveCutoff, batchSize), this::remove, deadline);
+                if (idleTimeoutMillis > 0) {
+                    LocalDateTime idleCutoff = now.minus(Duration.ofMillis(idleTimeoutMillis));
+                    reap(IDLE, sessionRepository.streamStaleActiveSessions(idleCutoff, batchSize), this::deactivate, deadline);
+                }
+
+                inactiveBacklog.set(sessionRepository.countByIsActiveAndLastActivityLessThanEqual(false, inactiveCutoff));
+            });
+        } finally {
+            lease.ifPresent(RedisLease::release);
+        }
+    }
+
+    private void reap(String reason, Stream<UserSession> candidates, Consumer<List<UserSession>> action, long deadline) {
+        Counter reaped = Counter.builder("session.reaper.reaped")
+                .tag("reason", reason)
+                .description("Sessions removed or deactivated by the reaper")
+                .register(meterRegistry);
+
+        try (candidates) {
+            Iterator<UserSession> iterator = candidates.iterator();
+            while (iterator.hasNext() && System.currentTimeMillis() < deadline) {
+                long batchStart = System.nanoTime();
+                List<UserSession> batch = new ArrayList<>(batchSize);
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next());
+                }
+
+                action.accept(batch);
+                reaped.increment(batch.size());
+                if (!pace(batch.size(), batchStart)) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Session reaper stopped while reaping {} sessions: {}", reason, e.getMessage());
+        }
+    }
+
+    private void remove(List<UserSession> sessions) {
+        List<String> ids = sessions.stream().map(UserSession::getId).toList();
+        if (archive) {
+            sessionRepository.archiveAll(ids);
+        }
+        sessionRepository.deleteAllById(ids);
+    }
+
+    private void deactivate(List<UserSession> sessions) {
+        sessions.forEach(session -> {
+            sessionStore.deactivate(session.getUserId(), session.getId());
+            jwtTokenService.revokeSession(session.getId());
+        });
+    }
+
+    // Sleep off whatever is left of the batch's share of the rate limit
+    private boolean pace(int processed, long batchStartNanos) {
+        long budgetNanos = TimeUnit.SECONDS.toNanos(processed) / maxPerSecond;
+        long remainingNanos = budgetNanos - (System.nanoTime() - batchStartNanos);
+        if (remainingNanos <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,569 @@
+package com.learn.desifans_user_service.service;
+
+import com.learn.desifans_user_service.config.RedisEvictionPolicy;
+import com.learn.desifans_user_service.model.DeviceInfo;
+import com.learn.desifans_user_service.model.UserSession;
+import com.learn.desifans_user_service.repository.UserSessionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Active session state, kept in Redis with Mongo as a write-behind store.
+ *
+ * Each session is a hash under {@code session:<sessionId>} that expires with the session,
+ * and each user's live sessions are a sorted set under {@code session:user:<userId>}, scored
+ * by creation time. Admitting a session and evicting the oldest ones past the concurrent
+ * limit is a single script, so simultaneous logins cannot overshoot the limit. Every
+ * mutation also queues the session id in a dirty set that {@link SessionWriteBehind} drains
+ * to Mongo in batches, so login, refresh and logout do not wait on a Mongo write. Scripts
+ * declare every key they touch in KEYS.
+ *
+ * Sessions missing from Redis (created before it was in use, or lost with it) are read from
+ * Mongo and cached again. When Redis is not reachable every call goes straight to Mongo.
+ *
+ * Redis holds the only copy of a change until it is flushed, so it must not evict keys
+ * ({@code maxmemory-policy noeviction}). Against a Redis that may evict, every change is also
+ * written through to Mongo and the write-behind queue is not used.
+ */
+@Service
+@Slf4j
+public class SessionStore {
+
+    static final String SESSION_PREFIX = "session:";
+    static final String USER_INDEX_PREFIX = "session:user:";
+    static final String DIRTY_KEY = "session:dirty";
+    static final String SEQUENCE_KEY = "session:dirty:seq";
+    static final String DELETED_USERS_KEY = "session:deleted-users";
+
+    private static final String INDEX_ADD = "add";
+    private static final String INDEX_REMOVE = "remove";
+    private static final String INDEX_KEEP = "";
+
+    // Lua helper moving a key's expiry to the given epoch millis, never earlier (PEXPIRETIME needs Redis 7)
+    private static final String EXTEND_EXPIRY = """
+            local function extend(key, expireAt)
+              local current = redis.call('PEXPIRETIME', key)
+              if current == -1 or current < tonumber(expireAt) then
+                redis.call('PEXPIREAT', key, expireAt)
+              end
+            end
+            """;
+
+    // KEYS: session hash, user index, dirty set, sequence
+    // ARGV: sessionId, mode, expire at millis or '', index op, mark dirty (1/0), index score,
+    //       field/value pairs...
+    // Mode '1' updates an existing hash only. Mode '0' rehydrates from Mongo: an existing hash is
+    // newer than Mongo and is kept, and only indexed if still active. The index expiry only ever
+    // moves later, so caching an older session cannot expire the index under newer ones. The
+    // dirty set is scored by a global sequence so the writer drains it oldest first.
+    private static final RedisScript<Long> MUTATE_SCRIPT = new DefaultRedisScript<>(EXTEND_EXPIRY + """
+            local exists = redis.call('EXISTS', KEYS[1]) == 1
+            if ARGV[2] == '1' and not exists then
+              return 0
+            end
+            local rehydrating = ARGV[2] == '0' and exists
+            if rehydrating and redis.call('HGET', KEYS[1], 'active') ~= '1' then
+              return 0
+            end
+            if not rehydrating then
+              if #ARGV > 6 then
+                redis.call('HSET', KEYS[1], unpack(ARGV, 7))
+              end
+              if ARGV[3] ~= '' then
+                redis.call('PEXPIREAT', KEYS[1], ARGV[3])
+              end
+            end
+            if ARGV[4] == 'add' then
+              redis.call('ZADD', KEYS[2], ARGV[6], ARGV[1])
+              if ARGV[3] ~= '' then
+                extend(KEYS[2], ARGV[3])
+              end
+            elseif ARGV[4] == 'remove' then
+              redis.call('ZREM', KEYS[2], ARGV[1])
+            end
+            if ARGV[5] == '1' then
+              redis.call('ZADD', KEYS[3], redis.call('INCR', KEYS[4]), ARGV[1])
+            end
+            return 1
+            """, Long.class);
+
+    // KEYS: user index, session hash, dirty set, sequence, hashes of the indexed sessions...
+    // ARGV: sessionId, created at millis, expire at millis, expired cutoff millis, max sessions,
+    //       mark dirty (1/0), indexed count, indexed ids..., field/value pairs...
+    // Drops expired entries, evicts the oldest sessions so the new one fits, stores it and returns
+    // 'ok' followed by the evicted ids. Evicted sessions are queued for the writer so a flush that
+    // read them while still active cannot leave them active in Mongo. Returns 'stale' without
+    // admitting if an evicted id is not among the declared hashes.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ADMIT_SCRIPT = new DefaultRedisScript<>(EXTEND_EXPIRY + """
+            local count = tonumber(ARGV[7])
+            local indexed = {}
+            for i = 1, count do
+              indexed[ARGV[7 + i]] = KEYS[4 + i]
+            end
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[4])
+            local evicted = {}
+            local excess = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[5]) + 1
+            if excess > 0 then
+              evicted = redis.call('ZRANGE', KEYS[1], 0, excess - 1)
+              for _, id in ipairs(evicted) do
+                if not indexed[id] then
+                  return {'stale'}
+                end
+              end
+              redis.call('ZREMRANGEBYRANK', KEYS[1], 0, excess - 1)
+              for _, id in ipairs(evicted) do
+                if redis.call('EXISTS', indexed[id]) == 1 then
+                  redis.call('HSET', indexed[id], 'active', '0')
+                  redis.call('ZADD', KEYS[3], redis.call('INCR', KEYS[4]), id)
+                end
+              end
+            end
+            redis.call('HSET', KEYS[2], unpack(ARGV, 8 + count))
+            redis.call('PEXPIREAT', KEYS[2], ARGV[3])
+            redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+            extend(KEYS[1], ARGV[3])
+            if ARGV[6] == '1' then
+              redis.call('ZADD', KEYS[3], redis.call('INCR', KEYS[4]), ARGV[1])
+            end
+            table.insert(evicted, 1, 'ok')
+            return evicted
+            """, List.class);
+
+    // KEYS: user index, dirty set, sequence, hashes of the indexed sessions...
+    // ARGV: indexed count, indexed ids...
+    // Marks every indexed session inactive, queues it for the writer, drops the index and returns
+    // 'ok' followed by the ids, or 'stale' without changes if a session is not among the declared hashes.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DEACTIVATE_ALL_SCRIPT = new DefaultRedisScript<>("""
+            local indexed = {}
+            for i = 1, tonumber(ARGV[1]) do
+              indexed[ARGV[1 + i]] = KEYS[3 + i]
+            end
+            local ids = redis.call('ZRANGE', KEYS[1], 0, -1)
+            for _, id in ipairs(ids) do
+              if not indexed[id] then
+                return {'stale'}
+              end
+            end
+            for _, id in ipairs(ids) do
+              if redis.call('EXISTS', indexed[id]) == 1 then
+                redis.call('HSET', indexed[id], 'active', '0')
+                redis.call('ZADD', KEYS[2], redis.call('INCR', KEYS[3]), id)
+              end
+            end
+            redis.call('DEL', KEYS[1])
+            table.insert(ids, 1, 'ok')
+            return ids
+            """, List.class);
+
+    // KEYS: user index, dirty set, deleted users, hashes of the indexed sessions...
+    // ARGV: userId, tombstone window millis, indexed count, indexed ids...
+    // Deletes every indexed session and drops it from the dirty set so no later flush writes it,
+    // and records when the user's sessions were deleted so a flush that read them just before
+    // can undo its write. Returns 'ok' followed by the ids, or 'stale' like DEACTIVATE_ALL_SCRIPT.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DELETE_ALL_SCRIPT = new DefaultRedisScript<>("""
+            local indexed = {}
+            for i = 1, tonumber(ARGV[3]) do
+              indexed[ARGV[3 + i]] = KEYS[3 + i]
+            end
+            local ids = redis.call('ZRANGE', KEYS[1], 0, -1)
+            for _, id in ipairs(ids) do
+              if not indexed[id] then
+                return {'stale'}
+              end
+            end
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', now - tonumber(ARGV[2]))
+            redis.call('ZADD', KEYS[3], now, ARGV[1])
+            for _, id in ipairs(ids) do
+              redis.call('DEL', indexed[id])
+              redis.call('ZREM', KEYS[2], id)
+            end
+            redis.call('DEL', KEYS[1])
+            table.insert(ids, 1, 'ok')
+            return ids
+            """, List.class);
+
+    private static final String SCRIPT_OK = "ok";
+    // How long a deletion is remembered; far longer than any flush takes
+    private static final long DELETED_USER_WINDOW_MILLIS = 600_000L;
+    private static final int MAX_SCRIPT_ATTEMPTS = 3;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final UserSessionRepository sessionRepository;
+    private final SessionWriteBehind writeBehind;
+    private final boolean redisAvailable;
+    private final boolean redisEvicts;
+
+    public SessionStore(RedisTemplate<String, String> redisTemplate,
+                        UserSessionRepository sessionRepository,
+                        SessionWriteBehind writeBehind) {
+        this.redisTemplate = redisTemplate;
+        this.sessionRepository = sessionRepository;
+        this.writeBehind = writeBehind;
+        this.redisAvailable = testRedisConnection();
+        this.redisEvicts = redisAvailable && RedisEvictionPolicy.evicts(redisTemplate);
+        if (redisEvicts) {
+            log.warn("Redis may evict keys (maxmemory-policy {}), session changes will be written through to MongoDB",
+                    RedisEvictionPolicy.of(redisTemplate).orElse("unknown"));
+        }
+    }
+
+    private boolean testRedisConnection() {
+        try {
+            redisTemplate.hasKey("test:connection");
+            return true;
+        } catch (Exception e) {
+            log.warn("Redis not available, sessions will be read and written in MongoDB: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Store a newly created session, first evicting the user's oldest sessions so that at most
+     * {@code maxSessions} remain active. Returns the ids of the evicted sessions.
+     */
+    public List<String> admit(UserSession session, int maxSessions) {
+        if (!redisAvailable) {
+            return admitInMongo(session, maxSessions);
+        }
+
+        long createdAt = toEpochMillis(session.getCreatedAt());
+        long expiresAt = toEpochMillis(session.getExpiresAt());
+        // Sessions all live as long as this one, so anything created one lifetime ago has expired
+        long expiredCutoff = createdAt - (expiresAt - createdAt);
+
+        // Write through while the write-behind backlog is over its bound, or if Redis may lose the change
+        boolean writeThrough = redisEvicts || writeBehind.isSaturated();
+
+        List<String> args = new ArrayList<>();
+        args.add(session.getId());
+        args.add(String.valueOf(createdAt));
+        args.add(String.valueOf(expiresAt));
+        args.add(String.valueOf(expiredCutoff));
+        args.add(String.valueOf(maxSessions));
+        args.add(writeThrough ? "0" : "1");
+
+        List<String> evicted;
+        try {
+            // Without an index Redis knows none of the user's sessions, so they are loaded from
+            // Mongo first and count towards the limit
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(USER_INDEX_PREFIX + session.getUserId()))) {
+                rebuildIndex(session.getUserId());
+            }
+            evicted = executeOnIndexed(ADMIT_SCRIPT, session.getUserId(),
+                    List.of(USER_INDEX_PREFIX + session.getUserId(), SESSION_PREFIX + session.getId(), DIRTY_KEY, SEQUENCE_KEY),
+                    args, toHash(session));
+        } catch (Exception e) {
+            log.warn("Error admitting session {} in Redis, using MongoDB: {}", session.getId(), e.getMessage());
+            return admitInMongo(session, maxSessions);
+        }
+        if (evicted == null) {
+            log.warn("Sessions of user {} kept changing while admitting session {}, using MongoDB",
+                    session.getUserId(), session.getId());
+            return admitInMongo(session, maxSessions);
+        }
+
+        // Evictions are security relevant, so Mongo gets them now in one update rather than via the writer
+        sessionRepository.deactivateAll(evicted);
+        if (writeThrough) {
+            sessionRepository.save(session);
+        }
+        return evicted;
+    }
+
+    private List<String> admitInMongo(UserSession session, int maxSessions) {
+        List<UserSession> activeSessions = sessionRepository.findActiveSessionsByUserId(session.getUserId()).stream()
+                .filter(active -> !active.isExpired())
+                .sorted(Comparator.comparing(UserSession::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        List<String> evicted = activeSessions.stream()
+                .limit(Math.max(0, activeSessions.size() - maxSessions + 1))
+                .map(UserSession::getId)
+                .toList();
+        sessionRepository.deactivateAll(evicted);
+        sessionRepository.insert(session);
+        return evicted;
+    }
+
+    /**
+     * Find a session by id, active or not
+     */
+    public Optional<UserSession> find(String sessionId) {
+        if (!redisAvailable) {
+            return sessionRepository.findById(sessionId);
+        }
+
+        try {
+            Map<String, String> hash = redisTemplate.<String, String>opsForHash().entries(SESSION_PREFIX + sessionId);
+            if (!hash.isEmpty()) {
+                return Optional.of(fromHash(sessionId, hash));
+            }
+        } catch (Exception e) {
+            log.warn("Error reading session {} from Redis: {}", sessionId, e.getMessage());
+            return sessionRepository.findById(sessionId);
+        }
+
+        Optional<UserSession> stored = sessionRepository.findById(sessionId);
+        stored.filter(session -> session.getIsActive() && !session.isExpired()).ifPresent(this::cache);
+        return stored;
+    }
+
+    /**
+     * Active, unexpired sessions of a user, oldest first
+     */
+    public List<UserSession> findActiveByUser(String userId) {
+        if (!redisAvailable) {
+            return sessionRepository.findActiveSessionsByUserId(userId);
+        }
+
+        try {
+            Set<String> sessionIds = redisTemplate.opsForZSet().range(USER_INDEX_PREFIX + userId, 0, -1);
+            if (sessionIds == null || sessionIds.isEmpty()) {
+                return rebuildIndex(userId);
+            }
+            return loadAll(redisTemplate, sessionIds).values().stream()
+                    .filter(session -> session.getIsActive() && !session.isExpired())
+                    .toList();
+        } catch (Exception e) {
+            log.warn("Error reading sessions of user {} from Redis: {}", userId, e.getMessage());
+            return sessionRepository.findActiveSessionsByUserId(userId);
+        }
+    }
+
+    /**
+     * Store the digest of a refreshed access token and touch lastActivity
+     */
+    public void recordRefresh(String sessionId, String accessTokenHash, LocalDateTime refreshedAt) {
+        boolean cached = redisAvailable && mutate(sessionId, null, true, null, INDEX_KEEP, !redisEvicts, null,
+                Map.of("accessTokenHash", accessTokenHash, "lastActivity", String.valueOf(toEpochMillis(refreshedAt))));
+        if (!cached || redisEvicts) {
+            sessionRepository.recordRefresh(sessionId, accessTokenHash, refreshedAt);
+        }
+    }
+
+    /**
+     * Mark a session inactive and drop it from its user's index
+     */
+    public void deactivate(String userId, String sessionId) {
+        boolean cached = redisAvailable
+                && mutate(sessionId, userId, true, null, INDEX_REMOVE, !redisEvicts, null, Map.of("active", "0"));
+        if (!cached || redisEvicts) {
+            sessionRepository.deactivate(sessionId);
+        }
+    }
+
+    /**
+     * Mark every active session of a user inactive with one script and one bulk update
+     */
+    public void deactivateAll(String userId) {
+        if (redisAvailable) {
+            try {
+                if (executeOnIndexed(DEACTIVATE_ALL_SCRIPT, userId,
+                        List.of(USER_INDEX_PREFIX + userId, DIRTY_KEY, SEQUENCE_KEY), List.of(), Map.of()) == null) {
+                    log.warn("Sessions of user {} kept changing while deactivating them in Redis", userId);
+                }
+            } catch (Exception e) {
+                log.warn("Error deactivating sessions of user {} in Redis: {}", userId, e.getMessage());
+            }
+        }
+        sessionRepository.deactivateAllForUser(userId);
+    }
+
+    /**
+     * Delete every session of a user, active or not. Redis goes first, so a write-behind flush
+     * racing with the Mongo delete sees the deletion and removes what it wrote.
+     */
+    public void deleteAll(String userId) {
+        if (redisAvailable) {
+            try {
+                if (executeOnIndexed(DELETE_ALL_SCRIPT, userId,
+                        List.of(USER_INDEX_PREFIX + userId, DIRTY_KEY, DELETED_USERS_KEY),
+                        List.of(userId, String.valueOf(DELETED_USER_WINDOW_MILLIS)), Map.of()) == null) {
+                    log.warn("Sessions of user {} kept changing while deleting them from Redis", userId);
+                }
+            } catch (Exception e) {
+                log.warn("Error deleting sessions of user {} from Redis: {}", userId, e.getMessage());
+            }
+        }
+        sessionRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Run a script that touches the hashes of a user's indexed sessions. Those hashes are declared
+     * as keys after {@code fixedKeys}, so they are read from the index first; the script answers
+     * 'stale' if the index gained a session meanwhile and is then run again. Returns the ids the
+     * script reported, or null if the index never held still.
+     */
+    @SuppressWarnings("rawtypes")
+    private List<String> executeOnIndexed(RedisScript<List> script, String userId, List<String> fixedKeys,
+                                          List<String> fixedArgs, Map<String, String> fields) {
+        for (int attempt = 0; attempt < MAX_SCRIPT_ATTEMPTS; attempt++) {
+            Set<String> indexed = redisTemplate.opsForZSet().range(USER_INDEX_PREFIX + userId, 0, -1);
+            List<String> sessionIds = indexed != null ? List.copyOf(indexed) : List.of();
+
+            List<String> keys = new ArrayList<>(fixedKeys);
+            List<String> args = new ArrayList<>(fixedArgs);
+            args.add(String.valueOf(sessionIds.size()));
+            sessionIds.forEach(sessionId -> {
+                keys.add(SESSION_PREFIX + sessionId);
+                args.add(sessionId);
+            });
+            fields.forEach((field, value) -> {
+                args.add(field);
+                args.add(value);
+            });
+
+            @SuppressWarnings("unchecked")
+            List<String> result = redisTemplate.execute(script, keys, args.toArray());
+            if (result != null && !result.isEmpty() && SCRIPT_OK.equals(result.get(0))) {
+                return result.subList(1, result.size());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read several session hashes in one pipelined round trip, skipping ids with no hash
+     */
+    static Map<String, UserSession> loadAll(RedisTemplate<String, String> redisTemplate, Collection<String> sessionIds) {
+        List<String> ids = List.copyOf(sessionIds);
+        List<Object> hashes = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                HashOperations<String, String, String> hashOperations =
+                        ((RedisOperations<String, String>) operations).opsForHash();
+                ids.forEach(id -> hashOperations.entries(SESSION_PREFIX + id));
+                return null;
+            }
+        });
+
+        Map<String, UserSession> sessions = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> hash = (Map<String, String>) hashes.get(i);
+            if (hash != null && !hash.isEmpty()) {
+                sessions.put(ids.get(i), fromHash(ids.get(i), hash));
+            }
+        }
+        return sessions;
+    }
+
+    // No index yet (sessions created before Redis, or lost with it), so Mongo decides and the
+    // index is rebuilt from it
+    private List<UserSession> rebuildIndex(String userId) {
+        List<UserSession> stored = sessionRepository.findActiveSessionsByUserId(userId);
+        stored.stream().filter(session -> !session.isExpired()).forEach(this::cache);
+        return stored;
+    }
+
+    private void cache(UserSession session) {
+        mutate(session.getId(), session.getUserId(), false, toEpochMillis(session.getExpiresAt()),
+                INDEX_ADD, false, toEpochMillis(session.getCreatedAt()), toHash(session));
+    }
+
+    private boolean mutate(String sessionId, String userId, boolean existing, Long expireAtMillis,
+                           String indexOperation, boolean markDirty, Long indexScore, Map<String, String> fields) {
+        List<String> args = new ArrayList<>(6 + fields.size() * 2);
+        args.add(sessionId);
+        args.add(existing ? "1" : "0");
+        args.add(expireAtMillis != null ? String.valueOf(expireAtMillis) : "");
+        args.add(indexOperation);
+        args.add(markDirty ? "1" : "0");
+        args.add(indexScore != null ? String.valueOf(indexScore) : "0");
+        fields.forEach((field, value) -> {
+            args.add(field);
+            args.add(value);
+        });
+
+        try {
+            Long applied = redisTemplate.execute(MUTATE_SCRIPT,
+                    List.of(SESSION_PREFIX + sessionId, USER_INDEX_PREFIX + userId, DIRTY_KEY, SEQUENCE_KEY),
+                    args.toArray());
+            return applied != null && applied == 1L;
+        } catch (Exception e) {
+            log.warn("Error writing session {} to Redis, using MongoDB: {}", sessionId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Map<String, String> toHash(UserSession session) {
+        Map<String, String> hash = new LinkedHashMap<>();
+        putIfPresent(hash, "userId", session.getUserId());
+        putIfPresent(hash, "refreshTokenHash", session.getRefreshTokenHash());
+        putIfPresent(hash, "accessTokenHash", session.getAccessTokenHash());
+        hash.put("active", session.getIsActive() ? "1" : "0");
+        putIfPresent(hash, "createdAt", toEpochMillis(session.getCreatedAt()));
+        putIfPresent(hash, "expiresAt", toEpochMillis(session.getExpiresAt()));
+        putIfPresent(hash, "lastActivity", toEpochMillis(session.getLastActivity()));
+
+        DeviceInfo deviceInfo = session.getDeviceInfo();
+        if (deviceInfo != null) {
+            putIfPresent(hash, "device.userAgent", deviceInfo.getUserAgent());
+            putIfPresent(hash, "device.ipAddress", deviceInfo.getIpAddress());
+            putIfPresent(hash, "device.deviceType", deviceInfo.getDeviceType());
+            putIfPresent(hash, "device.os", deviceInfo.getOs());
+            putIfPresent(hash, "device.browser", deviceInfo.getBrowser());
+            putIfPresent(hash, "device.deviceFingerprint", deviceInfo.getDeviceFingerprint());
+        }
+        return hash;
+    }
+
+    static UserSession fromHash(String sessionId, Map<String, String> hash) {
+        UserSession session = new UserSession();
+        session.setId(sessionId);
+        session.setUserId(hash.get("userId"));
+        session.setRefreshTokenHash(hash.get("refreshTokenHash"));
+        session.setAccessTokenHash(hash.get("accessTokenHash"));
+        session.setIsActive("1".equals(hash.get("active")));
+        session.setCreatedAt(fromEpochMillis(hash.get("createdAt")));
+        session.setExpiresAt(fromEpochMillis(hash.get("expiresAt")));
+        session.setLastActivity(fromEpochMillis(hash.get("lastActivity")));
+
+        DeviceInfo deviceInfo = new DeviceInfo();
+        deviceInfo.setUserAgent(hash.get("device.userAgent"));
+        deviceInfo.setIpAddress(hash.get("device.ipAddress"));
+        deviceInfo.setDeviceType(hash.get("device.deviceType"));
+        deviceInfo.setOs(hash.get("device.os"));
+        deviceInfo.setBrowser(hash.get("device.browser"));
+        deviceInfo.setDeviceFingerprint(hash.get("device.deviceFingerprint"));
+        session.setDeviceInfo(deviceInfo);
+        return session;
+    }
+
+    private static void putIfPresent(Map<String, String> hash, String field, Object value) {
+        if (value != null) {
+            hash.put(field, value.toString());
+        }
+    }
+
+    private static Long toEpochMillis(LocalDateTime value) {
+        return value != null ? value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+
+    private static LocalDateTime fromEpochMillis(String value) {
+        return value != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(value)), ZoneId.systemDefault()) : null;
+    }
+}
@@ -0,0 +1,212 @@
+package com.learn.desifans_user_service.service;
+
+import com.learn.desifans_user_service.model.UserSession;
+import com.learn.desifans_user_service.repository.UserSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains session changes from Redis into MongoDB in batches.
+ *
+ * {@link SessionStore} records each changed session id in a Redis sorted set scored by a
+ * global sequence. Every flush takes the oldest ids, reads their current hashes in one
+ * pipeline and upserts them with one unordered bulk write. An id is only removed from the
+ * set if its score is unchanged, so a change made during the flush is written next time.
+ * Because the pending set lives in Redis, a crash loses nothing: whichever instance flushes
+ * next replays it, and upserting the latest snapshot makes replays harmless. Sessions of a
+ * user whose sessions were deleted after the snapshot was read are deleted again after the
+ * write, so a flush racing with {@link SessionStore#deleteAll} cannot bring them back.
+ *
+ * When the backlog exceeds {@code max-backlog}, {@link #isSaturated()} tells the store to
+ * write new sessions through to Mongo until the writer catches up.
+ */
+@Component
+@Slf4j
+public class SessionWriteBehind {
+
+    // ARGV: sessionId, score pairs. Removes each id only if it was not queued again meanwhile.
+    private static final RedisScript<Long> ACKNOWLEDGE_SCRIPT = new DefaultRedisScript<>("""
+            local removed = 0
+            for i = 1, #ARGV, 2 do
+              local score = redis.call('ZSCORE', KEYS[1], ARGV[i])
+              if score and tonumber(score) == tonumber(ARGV[i + 1]) then
+                redis.call('ZREM', KEYS[1], ARGV[i])
+                removed = removed + 1
+              end
+            end
+            return removed
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final UserSessionRepository sessionRepository;
+    private final int batchSize;
+    private final int maxBatchesPerFlush;
+    private final long maxBacklog;
+    private final boolean redisAvailable;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+
+    public SessionWriteBehind(RedisTemplate<String, String> redisTemplate,
+                              UserSessionRepository sessionRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.security.session.write-behind.batch-size:500}") int batchSize,
+                              @Value("${app.security.session.write-behind.max-batches-per-flush:20}") int maxBatchesPerFlush,
+                              @Value("${app.security.session.write-behind.max-backlog:50000}") long maxBacklog) {
+        this.redisTemplate = redisTemplate;
+        this.sessionRepository = sessionRepository;
+        this.batchSize = batchSize;
+        this.maxBatchesPerFlush = maxBatchesPerFlush;
+        this.maxBacklog = maxBacklog;
+        this.redisAvailable = testRedisConnection();
+
+        Gauge.builder("session.writebehind.backlog", backlog, AtomicLong::get)
+                .description("Session changes waiting to be written to MongoDB")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("session.writebehind.flushed")
+                .description("Session snapshots written to MongoDB")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("session.writebehind.failed")
+                .description("Session write-behind batches that failed and will be retried")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("session.writebehind.batch")
+                .description("Time to read and write one session batch")
+                .register(meterRegistry);
+    }
+
+    private boolean testRedisConnection() {
+        try {
+            redisTemplate.hasKey("test:connection");
+            return true;
+        } catch (Exception e) {
+            log.warn("Redis not available, session write-behind disabled: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Whether the backlog is over its bound and new sessions should be written through
+     */
+    public boolean isSaturated() {
+        return backlog.get() >= maxBacklog;
+    }
+
+    /**
+     * Replay whatever a previous process left pending
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayPending() {
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.session.write-behind.flush-interval:1000}")
+    public void flush() {
+        if (!redisAvailable) {
+            return;
+        }
+
+        try {
+            for (int i = 0; i < maxBatchesPerFlush; i++) {
+                if (flushBatch() < batchSize) {
+                    break;
+                }
+            }
+            Long pending = redisTemplate.opsForZSet().zCard(SessionStore.DIRTY_KEY);
+            backlog.set(pending != null ? pending : 0L);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("Session write-behind flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private int flushBatch() {
+        Set<ZSetOperations.TypedTuple<String>> pending =
+                redisTemplate.opsForZSet().rangeWithScores(SessionStore.DIRTY_KEY, 0, batchSize - 1);
+        if (pending == null || pending.isEmpty()) {
+            return 0;
+        }
+
+        return flushTimer.record(() -> {
+            List<String> sessionIds = pending.stream().map(ZSetOperations.TypedTuple::getValue).toList();
+            Map<String, UserSession> sessions = SessionStore.loadAll(redisTemplate, sessionIds);
+
+            // Ids whose hash already expired are acknowledged without a write
+            sessionRepository.upsertAll(sessions.values());
+            flushedCounter.increment(sessions.size());
+            deleteSessionsOfDeletedUsers(sessions.values());
+
+            List<String> acknowledgements = new ArrayList<>(pending.size() * 2);
+            pending.forEach(tuple -> {
+                acknowledgements.add(tuple.getValue());
+                acknowledgements.add(String.valueOf(tuple.getScore().longValue()));
+            });
+            redisTemplate.execute(ACKNOWLEDGE_SCRIPT, List.of(SessionStore.DIRTY_KEY), acknowledgements.toArray());
+            return pending.size();
+        });
+    }
+
+    // Checked after the write: a deletion recorded before this point is either visible here or
+    // its Mongo delete runs after the write
+    private void deleteSessionsOfDeletedUsers(Collection<UserSession> written) {
+        List<String> userIds = written.stream().map(UserSession::getUserId).filter(Objects::nonNull).distinct().toList();
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Double> deletedAt = redisTemplate.opsForZSet().score(SessionStore.DELETED_USERS_KEY, userIds.toArray());
+        if (deletedAt == null) {
+            return;
+        }
+
+        Map<String, Double> deletedAtByUser = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            if (deletedAt.get(i) != null) {
+                deletedAtByUser.put(userIds.get(i), deletedAt.get(i));
+            }
+        }
+        List<String> resurrected = written.stream()
+                .filter(session -> {
+                    Double deleted = deletedAtByUser.get(session.getUserId());
+                    return deleted != null && (session.getCreatedAt() == null
+                            || session.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() <= deleted);
+                })
+                .map(UserSession::getId)
+                .toList();
+        if (!resurrected.isEmpty()) {
+            sessionRepository.deleteAllById(resurrected);
+            log.debug("Removed {} session(s) written after their user's sessions were deleted", resurrected.size());
+        }
+    }
+
+    /**
+     * Write out what is pending before shutdown so Mongo is current after a clean stop
+     */
+    @PreDestroy
+    void drain() {
+        flush();
+    }
+}
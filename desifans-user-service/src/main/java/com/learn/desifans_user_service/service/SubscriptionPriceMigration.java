@@ -0,0 +1,121 @@
+package com.learn.desifans_user_service.service;
+
+import com.learn.desifans_user_service.model.User;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts subscription prices written before they were mapped to Decimal128.
+ *
+ * Older documents hold the price as a string (the default BigDecimal mapping) or, when
+ * written by hand, as a double. Both sort and compare wrongly against Decimal128 bounds, so
+ * at startup every such document is streamed from a cursor and rewritten in unordered bulk
+ * batches. Each update only matches if the price still has the value that was read, so a
+ * concurrent save is never overwritten, and the whole run is safe to repeat. Values that do
+ * not parse as a number are logged and left alone.
+ */
+@Component
+@Slf4j
+public class SubscriptionPriceMigration {
+
+    private static final String PRICE_FIELD = "creatorProfile.subscriptionPrice";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public SubscriptionPriceMigration(MongoTemplate mongoTemplate,
+                                      @Value("${app.migrations.subscription-price.enabled:true}") boolean enabled,
+                                      @Value("${app.migrations.subscription-price.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long converted = convertPrices();
+            if (converted > 0) {
+                log.info("Converted {} subscription prices to Decimal128", converted);
+            }
+        } catch (Exception e) {
+            log.warn("Subscription price migration failed, will retry on next start: {}", e.getMessage());
+        }
+    }
+
+    private long convertPrices() {
+        MongoCollection<Document> users = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class));
+        long converted = 0;
+        List<WriteModel<Document>> batch = new ArrayList<>(batchSize);
+
+        try (MongoCursor<Document> cursor = users
+                .find(Filters.or(
+                        Filters.type(PRICE_FIELD, "string"),
+                        Filters.type(PRICE_FIELD, "double"),
+                        Filters.type(PRICE_FIELD, "int"),
+                        Filters.type(PRICE_FIELD, "long")))
+                .projection(Projections.include(PRICE_FIELD))
+                .batchSize(batchSize)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                Object stored = document.get("creatorProfile", Document.class).get("subscriptionPrice");
+                Decimal128 price = toDecimal128(document.get("_id"), stored);
+                if (price == null) {
+                    continue;
+                }
+                batch.add(new UpdateOneModel<>(
+                        Filters.and(Filters.eq("_id", document.get("_id")), Filters.eq(PRICE_FIELD, stored)),
+                        Updates.set(PRICE_FIELD, price)));
+                if (batch.size() >= batchSize) {
+                    converted += flush(users, batch);
+                }
+            }
+            converted += flush(users, batch);
+        }
+        return converted;
+    }
+
+    private static long flush(MongoCollection<Document> users, List<WriteModel<Document>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        long modified = users.bulkWrite(batch, new BulkWriteOptions().ordered(false)).getModifiedCount();
+        batch.clear();
+        return modified;
+    }
+
+    private static Decimal128 toDecimal128(Object id, Object stored) {
+        try {
+            BigDecimal price = stored instanceof Number number
+                    ? new BigDecimal(number.toString())
+                    : new BigDecimal(stored.toString().trim());
+            return new Decimal128(price);
+        } catch (NumberFormatException e) {
+            log.warn("Leaving unparseable subscription price '{}' of user {} unchanged", stored, id);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.learn.desifans_user_service.service;
+
+import com.learn.desifans_user_service.model.User;
+
+/**
+ * Published after a user document was saved, carrying the saved state. In-process read
+ * models that derive from users listen to it to stay current without polling.
+ */
+public record UserChangedEvent(User user) {
+}
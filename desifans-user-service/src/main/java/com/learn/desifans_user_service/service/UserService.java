@@ -2,18 +2,23 @@ package com.learn.desifans_user_service.service;
 
 import com.learn.desifans_user_service.dto.UserRegistrationRequest;
 import com.learn.desifans_user_service.dto.UserProfileUpdateRequest;
+import com.learn.desifans_user_service.cache.PublicProfileCache;
+import com.learn.desifans_user_service.cache.UserCache;
+import com.learn.desifans_user_service.dto.CursorPage;
+import com.learn.desifans_user_service.dto.PublicProfile;
+import com.learn.desifans_user_service.dto.Suggestion;
 import com.learn.desifans_user_service.model.*;
+import com.learn.desifans_user_service.repository.KeysetCursor;
 import com.learn.desifans_user_service.repository.UserRepository;
-import com.learn.desifans_user_service.repository.UserSessionRepository;
+import com.learn.desifans_user_service.search.SearchTokenizer;
+import com.learn.desifans_user_service.search.SuggestionIndex;
 import com.learn.desifans_user_service.security.JwtTokenService;
+import com.learn.desifans_user_service.security.PasswordHashingService;
+import com.learn.desifans_user_service.security.TokenDigest;
 import com.learn.desifans_user_service.exception.*;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,13 +30,19 @@ import java.util.UUID;
 
 @Service
 @Transactional
+@Slf4j
 public class UserService {
     
     private final UserRepository userRepository;
-    private final UserSessionRepository sessionRepository;
+    private final SessionStore sessionStore;
+    private final ActivityTracker activityTracker;
+    private final UserCache userCache;
+    private final PublicProfileCache publicProfileCache;
+    private final SuggestionIndex suggestionIndex;
     private final JwtTokenService jwtTokenService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Value("${app.security.rate-limiting.login.max-attempts}")
     private int maxLoginAttempts;
@@ -43,15 +54,25 @@ public class UserService {
     private int maxConcurrentSessions;
     
     public UserService(UserRepository userRepository, 
-                      UserSessionRepository sessionRepository,
+                      SessionStore sessionStore,
+                      ActivityTracker activityTracker,
+                      UserCache userCache,
+                      PublicProfileCache publicProfileCache,
+                      SuggestionIndex suggestionIndex,
                       JwtTokenService jwtTokenService,
-                      PasswordEncoder passwordEncoder,
-                      EmailService emailService) {
+                      PasswordHashingService passwordHashingService,
+                      EmailService emailService,
+                      ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
-        this.sessionRepository = sessionRepository;
+        this.sessionStore = sessionStore;
+        this.activityTracker = activityTracker;
+        this.userCache = userCache;
+        this.publicProfileCache = publicProfileCache;
+        this.suggestionIndex = suggestionIndex;
         this.jwtTokenService = jwtTokenService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.emailService = emailService;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -80,7 +101,7 @@ public class UserService {
         
         // Create new user
         User user = new User(request.getUsername(), request.getEmail(), 
-                           passwordEncoder.encode(request.getPassword()), request.getDateOfBirth());
+                           passwordHashingService.encode(request.getPassword()), request.getDateOfBirth());
         user.setStatus(UserStatus.PENDING_VERIFICATION);
         user.setRole(UserRole.SUBSCRIBER);
         
@@ -124,8 +145,8 @@ public class UserService {
      */
     public AuthenticationResult authenticateUser(String loginIdentifier, String password, 
                                                String ipAddress, String userAgent) {
-        // Find user by email or username
-        Optional<User> userOpt = userRepository.findByEmailOrUsername(loginIdentifier, loginIdentifier);
+        // Find user by email or username, loading only the fields login needs
+        Optional<User> userOpt = userRepository.findLoginViewByEmailOrUsername(loginIdentifier);
         
         if (userOpt.isEmpty()) {
             throw new InvalidCredentialsException();
@@ -144,18 +165,27 @@ public class UserService {
         }
         
         // Verify password
-        if (!passwordEncoder.matches(password, user.getPasswordHash())) {
+        if (!passwordHashingService.matches(password, user.getPasswordHash())) {
             handleFailedLogin(user);
             throw new InvalidCredentialsException();
         }
         
-        // Reset failed login attempts on successful login
-        user.getSecurity().resetFailedAttempts();
-        user.getSecurity().setLastLogin(LocalDateTime.now());
-        user.setLastActiveAt(LocalDateTime.now());
+        // Re-encode with this node's calibrated cost if the stored hash differs
+        String newPasswordHash = null;
+        if (passwordHashingService.needsRehash(user.getPasswordHash())) {
+            try {
+                newPasswordHash = passwordHashingService.encode(password);
+            } catch (ServiceOverloadedException e) {
+                // Keep the old hash; the upgrade will be retried on a later login
+            }
+        }
         
-        // Manage concurrent sessions
-        manageConcurrentSessions(user.getId());
+        // Reset failed login attempts and record the login with a single targeted update
+        LocalDateTime now = LocalDateTime.now();
+        userRepository.recordSuccessfulLogin(user.getId(), now, newPasswordHash);
+        user.getSecurity().resetFailedAttempts();
+        user.getSecurity().setLastLogin(now);
+        user.setLastActiveAt(now);
         
         // Create new session
         String sessionId = UUID.randomUUID().toString();
@@ -165,13 +195,14 @@ public class UserService {
         String accessToken = jwtTokenService.generateAccessToken(user, sessionId);
         String refreshToken = jwtTokenService.generateRefreshToken(user, sessionId);
         
-        // Save session
-        UserSession session = new UserSession(user.getId(), refreshToken, accessToken, 
+        // Save session under the sessionId claim, keeping only token digests
+        UserSession session = new UserSession(sessionId, user.getId(), 
+                                            TokenDigest.sha256(refreshToken), TokenDigest.sha256(accessToken), 
                                             deviceInfo, LocalDateTime.now().plusDays(7));
-        sessionRepository.save(session);
         
-        // Update user
-        userRepository.save(user);
+        // Admit the session, evicting the oldest past the concurrent-session limit in the same step
+        sessionStore.admit(session, maxConcurrentSessions)
+                .forEach(jwtTokenService::revokeSession);
         
         return new AuthenticationResult(accessToken, refreshToken, user);
     }
@@ -180,33 +211,12 @@ public class UserService {
      * Handle failed login attempt
      */
     private void handleFailedLogin(User user) {
-        SecurityInfo security = user.getSecurity();
-        security.incrementFailedAttempts();
-        
-        if (security.getFailedLoginAttempts() >= maxLoginAttempts) {
-            security.lockAccount((int) (lockoutDuration / 60000)); // Convert to minutes
-        }
-        
-        userRepository.save(user);
-    }
-    
-    /**
-     * Manage concurrent sessions (enforce max session limit)
-     */
-    private void manageConcurrentSessions(String userId) {
-        List<UserSession> activeSessions = sessionRepository.findActiveSessionsByUserId(userId);
-        
-        if (activeSessions.size() >= maxConcurrentSessions) {
-            // Remove oldest sessions
-            activeSessions.stream()
-                    .sorted((s1, s2) -> s1.getCreatedAt().compareTo(s2.getCreatedAt()))
-                    .limit(activeSessions.size() - maxConcurrentSessions + 1)
-                    .forEach(session -> {
-                        session.setIsActive(false);
-                        sessionRepository.save(session);
-                        jwtTokenService.blacklistToken(session.getSessionToken());
-                    });
-        }
+        userRepository.registerFailedLogin(user.getId(), 
+                        maxLoginAttempts, 
+                        LocalDateTime.now().plusMinutes(lockoutDuration / 60000)) // Convert to minutes
+                .filter(LoginAttemptState::isLocked)
+                .ifPresent(state -> log.info("Account {} locked until {} after {} failed attempts", 
+                        user.getId(), state.lockoutUntil(), state.failedLoginAttempts()));
     }
     
     /**
@@ -221,23 +231,23 @@ public class UserService {
         String userId = jwtTokenService.getUserIdFromToken(refreshToken);
         String sessionId = jwtTokenService.getSessionIdFromToken(refreshToken);
         
-        // Find user and session
-        User user = findUserById(userId);
-        Optional<UserSession> sessionOpt = sessionRepository.findBySessionToken(refreshToken);
-        
-        if (sessionOpt.isEmpty() || !sessionOpt.get().getIsActive()) {
-            throw new InvalidTokenException("Invalid session");
-        }
+        // Find session by its id and check it was issued this exact refresh token
+        UserSession session = sessionStore.find(sessionId)
+                .filter(UserSession::getIsActive)
+                .filter(s -> userId.equals(s.getUserId()))
+                .filter(s -> TokenDigest.matches(refreshToken, s.getRefreshTokenHash()))
+                .orElseThrow(() -> new InvalidTokenException("Invalid session"));
         
-        UserSession session = sessionOpt.get();
+        // Find user (token fields only)
+        User user = userRepository.findTokenViewById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
         
         // Generate new access token
         String newAccessToken = jwtTokenService.generateAccessToken(user, sessionId);
         
-        // Update session
-        session.setAccessToken(newAccessToken);
-        session.updateLastActivity();
-        sessionRepository.save(session);
+        // Record the refresh; Mongo is updated by the write-behind
+        sessionStore.recordRefresh(session.getId(), TokenDigest.sha256(newAccessToken), LocalDateTime.now());
+        activityTracker.recordActivity(userId, null);
         
         return new AuthenticationResult(newAccessToken, refreshToken, user);
     }
@@ -246,41 +256,46 @@ public class UserService {
      * Logout user (invalidate session)
      */
     public void logout(String token) {
+        String userId = jwtTokenService.getUserIdFromToken(token);
         String sessionId = jwtTokenService.getSessionIdFromToken(token);
         
-        Optional<UserSession> sessionOpt = sessionRepository.findBySessionToken(token);
-        if (sessionOpt.isPresent()) {
-            UserSession session = sessionOpt.get();
-            session.setIsActive(false);
-            sessionRepository.save(session);
-            
-            // Blacklist both tokens
-            jwtTokenService.blacklistToken(session.getSessionToken());
-            jwtTokenService.blacklistToken(session.getAccessToken());
-        }
+        sessionStore.deactivate(userId, sessionId);
+        
+        // Revoke every token issued for this session
+        jwtTokenService.revokeSession(sessionId);
     }
     
     /**
      * Logout from all devices
      */
     public void logoutAll(String userId) {
-        List<UserSession> activeSessions = sessionRepository.findActiveSessionsByUserId(userId);
-        
-        for (UserSession session : activeSessions) {
-            session.setIsActive(false);
-            sessionRepository.save(session);
-            
-            // Blacklist tokens
-            jwtTokenService.blacklistToken(session.getSessionToken());
-            jwtTokenService.blacklistToken(session.getAccessToken());
-        }
+        // Revoke every token issued to the user with a single generation bump
+        jwtTokenService.revokeAllSessions(userId);
+        
+        sessionStore.deactivateAll(userId);
     }
     
     /**
      * Get user by ID with caching
      */
-    @Cacheable(value = "user_profiles", key = "#userId")
     public User findUserById(String userId) {
+        return userCache.getById(userId, userRepository::findById)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+    }
+    
+    /**
+     * Get the public profile of a visible user, served from its own cache
+     */
+    public PublicProfile getPublicProfile(String userId) {
+        return publicProfileCache.get(userId,
+                        id -> userRepository.findPublicProfileViewById(id).map(PublicProfile::fromUser))
+                .orElseThrow(() -> new UserNotFoundException(userId));
+    }
+    
+    /**
+     * Load a user from the database for modification, never a shared cached instance
+     */
+    private User loadUserForUpdate(String userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
     }
@@ -311,21 +326,18 @@ public class UserService {
     
     // User Lookup Methods
     
-    @Cacheable(value = "users", key = "#username")
     public User findByUsername(String username) {
-        return userRepository.findByUsername(username)
+        return userCache.getByUsername(username, userRepository::findByUsername)
                 .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
     }
     
-    @Cacheable(value = "users", key = "#userId")
     public User findById(String userId) {
-        return userRepository.findById(userId)
+        return userCache.getById(userId, userRepository::findById)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
     }
     
-    @Cacheable(value = "users", key = "#email")
     public User findByEmail(String email) {
-        return userRepository.findByEmail(email)
+        return userCache.getByEmail(email, userRepository::findByEmail)
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
     }
     
@@ -347,34 +359,37 @@ public class UserService {
     
     // User Account Management Methods
     
-    @CacheEvict(value = "users", key = "#username")
     public void deactivateAccount(String username) {
-        User user = findByUsername(username);
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
         user.setStatus(UserStatus.SUSPENDED);
         user.getSecurity().setLockoutUntil(LocalDateTime.now().plusYears(100)); // Long lockout for deactivation
         
-        // Invalidate all sessions
-        sessionRepository.deleteByUserId(user.getId());
+        // Revoke every outstanding token, then invalidate all sessions
+        jwtTokenService.revokeAllSessions(user.getId());
+        sessionStore.deleteAll(user.getId());
         
         userRepository.save(user);
+        evictUser(user);
     }
     
-    @CachePut(value = "users", key = "#username")
     public User reactivateAccount(String username) {
-        User user = findByUsername(username);
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException("User not found with username: " + username));
         user.setStatus(UserStatus.ACTIVE);
         user.getSecurity().setLockoutUntil(null);
         user.getSecurity().resetFailedAttempts();
         
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        cacheUser(savedUser);
+        return savedUser;
     }
     
     /**
      * Update user profile
      */
-    @CachePut(value = "user_profiles", key = "#userId")
     public User updateUserProfile(String userId, UserProfile profileUpdate) {
-        User user = findUserById(userId);
+        User user = loadUserForUpdate(userId);
         
         // Update profile fields
         UserProfile profile = user.getProfile();
@@ -392,11 +407,13 @@ public class UserService {
         }
         
         user.setUpdatedAt(LocalDateTime.now());
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        cacheUser(savedUser);
+        return savedUser;
     }
     
     /**
-     * Update user profile without caching to avoid Redis dependency
+     * Update user profile from a profile update request
      */
     public User updateUserProfile(String userId, UserProfileUpdateRequest request) {
         User user = userRepository.findById(userId)
@@ -423,14 +440,16 @@ public class UserService {
         // They can be added later when the UserProfile model is extended
         
         user.setUpdatedAt(LocalDateTime.now());
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        cacheUser(savedUser);
+        return savedUser;
     }
     
     /**
      * Verify email address
      */
     public void verifyEmail(String userId, String verificationToken) {
-        User user = findUserById(userId);
+        User user = loadUserForUpdate(userId);
         
         // Verify token (this would typically involve checking against stored verification tokens)
         // For now, we'll assume verification is successful
@@ -440,22 +459,22 @@ public class UserService {
             user.setStatus(UserStatus.ACTIVE);
         }
         
-        userRepository.save(user);
+        cacheUser(userRepository.save(user));
     }
     
     /**
      * Change password
      */
     public void changePassword(String userId, String currentPassword, String newPassword) {
-        User user = findUserById(userId);
+        User user = loadUserForUpdate(userId);
         
         // Verify current password
-        if (!passwordEncoder.matches(currentPassword, user.getPasswordHash())) {
+        if (!passwordHashingService.matches(currentPassword, user.getPasswordHash())) {
             throw new InvalidCredentialsException("Current password is incorrect");
         }
         
         // Update password
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
+        user.setPasswordHash(passwordHashingService.encode(newPassword));
         user.setUpdatedAt(LocalDateTime.now());
         
         // Add security event
@@ -463,7 +482,7 @@ public class UserService {
                 "Password changed by user", null, null);
         user.getSecurity().getSecurityEvents().add(passwordChangeEvent);
         
-        userRepository.save(user);
+        cacheUser(userRepository.save(user));
         
         // Invalidate all sessions for security
         logoutAll(userId);
@@ -472,9 +491,8 @@ public class UserService {
     /**
      * Delete user account (soft delete)
      */
-    @CacheEvict(value = "user_profiles", key = "#userId")
     public void deleteUser(String userId, String reason) {
-        User user = findUserById(userId);
+        User user = loadUserForUpdate(userId);
         
         user.setStatus(UserStatus.DELETED);
         user.setUpdatedAt(LocalDateTime.now());
@@ -485,23 +503,62 @@ public class UserService {
         user.getSecurity().getSecurityEvents().add(deletionEvent);
         
         userRepository.save(user);
+        evictUser(user);
         
         // Invalidate all sessions
         logoutAll(userId);
     }
     
+    // Every read model of a saved user is refreshed or dropped together
+    private void cacheUser(User savedUser) {
+        userCache.put(savedUser);
+        publicProfileCache.evict(savedUser.getId());
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser));
+    }
+    
+    private void evictUser(User user) {
+        userCache.evict(user);
+        publicProfileCache.evict(user.getId());
+        eventPublisher.publishEvent(new UserChangedEvent(user));
+    }
+    
     /**
-     * Search users
+     * Typeahead suggestions for what has been typed so far, served from memory
      */
-    public Page<User> searchUsers(String searchTerm, Pageable pageable) {
-        return userRepository.searchActiveUsers(searchTerm, pageable);
+    public List<Suggestion> suggestUsers(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, limit);
+    }
+    
+    /**
+     * Search active users, or only creators, by name; best matches first
+     */
+    public CursorPage<PublicProfile> searchUsers(String query, boolean creatorsOnly, String cursor,
+                                                 int limit, boolean includeTotal) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return CursorPage.<PublicProfile>builder().items(List.of()).total(includeTotal ? 0L : null).build();
+        }
+        
+        // One extra hit tells whether there is a next page
+        List<UserSearchHit> hits = userRepository.searchActive(tokens, creatorsOnly, KeysetCursor.decode(cursor), limit + 1);
+        List<UserSearchHit> page = hits.subList(0, Math.min(limit, hits.size()));
+        String nextCursor = null;
+        if (hits.size() > limit) {
+            UserSearchHit last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(String.valueOf(last.score()), last.user().getId()).encode();
+        }
+        return CursorPage.<PublicProfile>builder()
+                .items(page.stream().map(hit -> PublicProfile.fromUser(hit.user())).toList())
+                .nextCursor(nextCursor)
+                .total(includeTotal ? userRepository.countSearchMatches(tokens, creatorsOnly) : null)
+                .build();
     }
     
     /**
      * Get user's active sessions
      */
     public List<UserSession> getUserSessions(String userId) {
-        return sessionRepository.findActiveSessionsByUserId(userId);
+        return sessionStore.findActiveByUser(userId);
     }
     
     /**
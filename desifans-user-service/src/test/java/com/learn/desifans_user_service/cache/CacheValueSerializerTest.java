@@ -0,0 +1,85 @@
+package com.learn.desifans_user_service.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.learn.desifans_user_service.dto.PublicProfile;
+import com.learn.desifans_user_service.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheValueSerializerTest {
+
+    private GenericJackson2JsonRedisSerializer json;
+    private CacheValueSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        // Configured like CacheConfig
+        json = new GenericJackson2JsonRedisSerializer();
+        json.configure(mapper -> mapper
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        serializer = new CacheValueSerializer(json, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void usersAreWrittenWithTheCodecAndReadBackWithoutSecrets() {
+        User user = UserCodecTest.creator();
+
+        User decoded = (User) serializer.deserialize(serializer.serialize(user));
+
+        assertThat(decoded.getUsername()).isEqualTo(user.getUsername());
+        assertThat(decoded.getPasswordHash()).isNull();
+    }
+
+    @Test
+    void legacyJsonUserIsAMiss() {
+        byte[] legacy = json.serialize(UserCodecTest.creator());
+        assertThat(json.deserialize(legacy)).isInstanceOf(User.class);
+
+        assertThat(serializer.deserialize(legacy)).isNull();
+    }
+
+    @Test
+    void otherJsonValuesStillReadBack() {
+        PublicProfile profile = PublicProfile.builder().id("u-1").username("maya").build();
+
+        Object decoded = serializer.deserialize(serializer.serialize(profile));
+
+        assertThat(decoded).isInstanceOf(PublicProfile.class);
+        assertThat(((PublicProfile) decoded).getUsername()).isEqualTo("maya");
+    }
+
+    @Test
+    void aliasStringsRoundTrip() {
+        assertThat(serializer.deserialize(serializer.serialize("u-1"))).isEqualTo("u-1");
+    }
+
+    @Test
+    void unreadableUserEntryIsAMiss() {
+        byte[] entry = serializer.serialize(UserCodecTest.creator());
+        byte[] unknownVersion = entry.clone();
+        unknownVersion[1] = 0;
+
+        assertThat(serializer.deserialize(unknownVersion)).isNull();
+        assertThat(serializer.deserialize(Arrays.copyOf(entry, entry.length / 2))).isNull();
+    }
+
+    @Test
+    void codecEntryIsSmallerThanJson() {
+        User user = UserCodecTest.creator();
+
+        int binary = serializer.serialize(user).length;
+        int jsonSize = json.serialize(UserCodec.cachedView(user)).length;
+
+        assertThat(binary).isLessThan(jsonSize / 2);
+    }
+}
@@ -0,0 +1,160 @@
+package com.learn.desifans_user_service.cache;
+
+import com.learn.desifans_user_service.model.CreatorProfile;
+import com.learn.desifans_user_service.model.SecurityEvent;
+import com.learn.desifans_user_service.model.TipMenu;
+import com.learn.desifans_user_service.model.User;
+import com.learn.desifans_user_service.model.UserRole;
+import com.learn.desifans_user_service.model.UserStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserCodecTest {
+
+    @Test
+    void roundTripKeepsTheCachedFields() throws IOException {
+        User user = creator();
+
+        User decoded = decode(encode(user));
+
+        assertThat(decoded)
+                .usingRecursiveComparison()
+                .ignoringFields("passwordHash", "phoneNumber", "dateOfBirth", "security",
+                        "searchTokens", "searchPrefixes",
+                        "creatorProfile.statistics.totalEarnings",
+                        "creatorProfile.statistics.monthlyEarnings",
+                        "creatorProfile.statistics.weeklyEarnings")
+                .isEqualTo(user);
+    }
+
+    @Test
+    void secretsAreNeverEncoded() throws IOException {
+        User user = creator();
+
+        byte[] encoded = encode(user);
+        User decoded = decode(encoded);
+
+        assertThat(new String(encoded, StandardCharsets.ISO_8859_1))
+                .doesNotContain("$2a$12$secret-hash")
+                .doesNotContain("+15550100")
+                .doesNotContain("totp-secret");
+        assertThat(decoded.getPasswordHash()).isNull();
+        assertThat(decoded.getPhoneNumber()).isNull();
+        assertThat(decoded.getDateOfBirth()).isNull();
+        assertThat(decoded.getSecurity().getFailedLoginAttempts()).isZero();
+        assertThat(decoded.getSecurity().getTwoFactorSecret()).isNull();
+        assertThat(decoded.getSecurity().getSecurityEvents()).isNullOrEmpty();
+        assertThat(decoded.getCreatorProfile().getStatistics().getTotalEarnings()).isZero();
+    }
+
+    @Test
+    void cachedViewMatchesWhatACacheReadReturns() throws IOException {
+        User user = creator();
+
+        assertThat(UserCodec.cachedView(user))
+                .usingRecursiveComparison()
+                .isEqualTo(decode(encode(user)));
+    }
+
+    @Test
+    void newerVersionsAreReadUpToTheKnownFields() throws IOException {
+        User user = creator();
+        byte[] encoded = encode(user);
+        byte[] newer = Arrays.copyOf(encoded, encoded.length + 3);
+        newer[0] = (byte) (UserCodec.VERSION + 1);
+        newer[encoded.length] = 0x7F;
+
+        assertThat(decode(newer).getUsername()).isEqualTo(user.getUsername());
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+        byte[] encoded = encode(creator());
+        encoded[0] = 0;
+
+        assertThatThrownBy(() -> decode(encoded)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void truncatedEntryIsRejected() throws IOException {
+        byte[] encoded = encode(creator());
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length / 2);
+
+        assertThatThrownBy(() -> decode(truncated)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void subscriberWithoutCreatorProfileRoundTrips() throws IOException {
+        User user = new User("fan", "fan@example.com", "hash", LocalDate.of(1990, 1, 1));
+        user.setId("u-2");
+
+        User decoded = decode(encode(user));
+
+        assertThat(decoded.getCreatorProfile()).isNull();
+        assertThat(decoded.getRole()).isEqualTo(UserRole.SUBSCRIBER);
+        assertThat(decoded.getProfile().getDisplayName()).isNull();
+    }
+
+    static User creator() {
+        User user = new User("maya", "maya@example.com", "$2a$12$secret-hash", LocalDate.of(1995, 5, 17));
+        user.setId("u-1");
+        user.setRole(UserRole.CREATOR);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setEmailVerified(true);
+        user.setPhoneNumber("+15550100");
+        // The codec stores millisecond precision
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        user.setCreatedAt(now.minusDays(30));
+        user.setUpdatedAt(now);
+        user.setLastActiveAt(now);
+        user.getProfile().setDisplayName("Maya Ríos");
+        user.getProfile().setBio("Plant-based recipes 🌱");
+        user.getProfile().setSocialLinks(List.of("https://example.com/maya"));
+        user.getSecurity().setFailedLoginAttempts(3);
+        user.getSecurity().setTwoFactorSecret("totp-secret");
+        user.getSecurity().setSecurityEvents(List.of(new SecurityEvent()));
+
+        CreatorProfile creatorProfile = new CreatorProfile();
+        creatorProfile.setCreatorName("Maya Cooks");
+        creatorProfile.setCategory("Food");
+        creatorProfile.setSubscriptionPrice(new BigDecimal("9.99"));
+        creatorProfile.setContentWarnings(List.of());
+        creatorProfile.setCreatorSince(now.minusDays(10));
+        TipMenu tipMenu = new TipMenu();
+        tipMenu.setOptions(List.of(new TipMenu.TipOption(new BigDecimal("5.00"), "Coffee")));
+        creatorProfile.setTipMenu(tipMenu);
+        creatorProfile.getStatistics().setSubscriberCount(1_234_567);
+        creatorProfile.getStatistics().setLikeCount(42);
+        creatorProfile.getStatistics().setAverageRating(4.5);
+        creatorProfile.getStatistics().setTotalEarnings(99_000);
+        user.setCreatorProfile(creatorProfile);
+        return user;
+    }
+
+    static byte[] encode(User user) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            UserCodec.encode(user, out);
+        }
+        return buffer.toByteArray();
+    }
+
+    static User decode(byte[] bytes) throws IOException {
+        return UserCodec.decode(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}
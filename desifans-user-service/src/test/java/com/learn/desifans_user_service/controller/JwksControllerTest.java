@@ -0,0 +1,44 @@
+package com.learn.desifans_user_service.controller;
+
+import com.learn.desifans_user_service.security.JwtKeyRing;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwksControllerTest {
+
+    private static final String ETAG = "\"abc123\"";
+
+    private final JwksController controller = controller();
+
+    @Test
+    void matchingTagsAreNotModified() {
+        assertThat(status(ETAG)).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(status("W/" + ETAG)).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(status("\"other\", W/" + ETAG)).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(status("*")).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void otherTagsGetTheDocument() {
+        assertThat(status(null)).isEqualTo(HttpStatus.OK);
+        assertThat(status("\"other\"")).isEqualTo(HttpStatus.OK);
+        assertThat(status("\"other\", W/\"abc\"")).isEqualTo(HttpStatus.OK);
+    }
+
+    private HttpStatus status(String ifNoneMatch) {
+        return (HttpStatus) controller.jwks(ifNoneMatch).getStatusCode();
+    }
+
+    private static JwksController controller() {
+        JwtKeyRing keyRing = mock(JwtKeyRing.class);
+        when(keyRing.jwks()).thenReturn(new JwtKeyRing.JsonWebKeySet(Map.of("keys", List.of()), ETAG));
+        return new JwksController(keyRing);
+    }
+}
@@ -0,0 +1,95 @@
+package com.learn.desifans_user_service.repository;
+
+import com.learn.desifans_user_service.model.LoginAttemptState;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the failed-login pipeline update against a real MongoDB; skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class LoginAttemptsMongoTest {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer(DockerImageName.parse("mongo:7"));
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private UserRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void connect() {
+        client = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "desifans_users_test");
+        mongoTemplate.getCollection("users").drop();
+        repository = new UserRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @AfterEach
+    void close() {
+        client.close();
+    }
+
+    @Test
+    void reachingTheLimitLocksTheAccount() {
+        String userId = insertUser(MAX_ATTEMPTS - 1, null);
+
+        LoginAttemptState state = registerFailedLogin(userId);
+
+        assertThat(state.failedLoginAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(state.isLocked()).isTrue();
+    }
+
+    @Test
+    void failureAfterAnExpiredLockoutStartsAFreshCount() {
+        String userId = insertUser(MAX_ATTEMPTS, LocalDateTime.now().minusMinutes(1));
+
+        LoginAttemptState state = registerFailedLogin(userId);
+
+        assertThat(state.failedLoginAttempts()).isEqualTo(1);
+        assertThat(state.lockoutUntil()).isNull();
+    }
+
+    @Test
+    void failureDuringALockoutKeepsCounting() {
+        LocalDateTime lockedUntil = LocalDateTime.now().plusMinutes(10);
+        String userId = insertUser(MAX_ATTEMPTS, lockedUntil);
+
+        LoginAttemptState state = registerFailedLogin(userId);
+
+        assertThat(state.failedLoginAttempts()).isEqualTo(MAX_ATTEMPTS + 1);
+        assertThat(state.isLocked()).isTrue();
+    }
+
+    private LoginAttemptState registerFailedLogin(String userId) {
+        return repository.registerFailedLogin(userId, MAX_ATTEMPTS, LocalDateTime.now().plusMinutes(15)).orElseThrow();
+    }
+
+    private String insertUser(int failedLoginAttempts, LocalDateTime lockoutUntil) {
+        ObjectId id = new ObjectId();
+        Document security = new Document("failedLoginAttempts", failedLoginAttempts)
+                .append("lockoutUntil", lockoutUntil != null
+                        ? Date.from(lockoutUntil.atZone(ZoneId.systemDefault()).toInstant())
+                        : null);
+        mongoTemplate.getCollection("users").insertOne(new Document("_id", id).append("security", security));
+        return id.toHexString();
+    }
+}
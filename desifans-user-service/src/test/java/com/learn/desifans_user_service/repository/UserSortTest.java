@@ -0,0 +1,191 @@
+package com.learn.desifans_user_service.repository;
+
+import com.learn.desifans_user_service.model.CreatorProfile;
+import com.learn.desifans_user_service.model.User;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserSortTest {
+
+    private static final String SUBSCRIBERS = "creatorProfile.statistics.subscriberCount";
+    private static final String PRICE = "creatorProfile.subscriptionPrice";
+
+    @Test
+    void pagingThroughTiesHasNoGapOrDuplicate() {
+        // Three users tie on 50 subscribers and a page boundary falls inside the tie
+        List<User> users = List.of(
+                creator("u5", 50), creator("u1", 80), creator("u3", 50),
+                creator("u2", 50), creator("u4", 10), creator("u6", 80));
+        List<String> expected = List.of("u1", "u6", "u2", "u3", "u5", "u4");
+
+        for (int pageSize = 1; pageSize <= users.size(); pageSize++) {
+            assertThat(pageThrough(UserSort.POPULAR, users, pageSize)).as("page size %d", pageSize).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void usersWithoutStatisticsComeLastWhenDescending() {
+        List<User> users = List.of(
+                creator("u3", 50), withoutStatistics("u5"), creator("u1", 80),
+                withoutStatistics("u2"), creator("u4", 0));
+        List<String> expected = List.of("u1", "u3", "u4", "u2", "u5");
+
+        for (int pageSize = 1; pageSize <= users.size(); pageSize++) {
+            assertThat(pageThrough(UserSort.POPULAR, users, pageSize)).as("page size %d", pageSize).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void usersWithoutAPriceComeFirstWhenAscending() {
+        List<User> users = List.of(
+                priced("u3", "9.99"), priced("u5", null), priced("u1", "4.99"),
+                priced("u2", null), priced("u4", "9.99"));
+        List<String> expected = List.of("u2", "u5", "u1", "u3", "u4");
+
+        for (int pageSize = 1; pageSize <= users.size(); pageSize++) {
+            assertThat(pageThrough(UserSort.PRICE, users, pageSize)).as("page size %d", pageSize).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void tieIsBrokenByIdAfterTheSortValue() {
+        Document criteria = UserSort.POPULAR.after(new KeysetCursor("50", "u3")).getCriteriaObject();
+
+        assertThat(criteria.getList("$or", Document.class)).containsExactly(
+                new Document(SUBSCRIBERS, new Document("$lt", 50L)),
+                new Document(SUBSCRIBERS, 50L).append("_id", new Document("$gt", "u3")),
+                new Document(SUBSCRIBERS, null));
+    }
+
+    @Test
+    void ascendingOrderContinuesAboveTheCursor() {
+        Document criteria = UserSort.PRICE.after(new KeysetCursor("4.99", "u3")).getCriteriaObject();
+
+        Document beyond = criteria.getList("$or", Document.class).get(0);
+        assertThat(beyond.get(PRICE, Document.class)).containsOnlyKeys("$gt");
+    }
+
+    @Test
+    void missingSortValuesAreWrittenAsAnEmptyCursorValue() {
+        User user = new User();
+        user.setId("u1");
+
+        assertThat(UserSort.NEWEST.cursorAfter(user).sortValue()).isEmpty();
+        assertThat(UserSort.POPULAR.cursorAfter(user).sortValue()).isEmpty();
+        assertThat(UserSort.PRICE.cursorAfter(user).sortValue()).isEmpty();
+        assertThat(KeysetCursor.decode(UserSort.PRICE.cursorAfter(user).encode()))
+                .isEqualTo(new KeysetCursor("", "u1"));
+    }
+
+    @Test
+    void cursorWithAnUnparseableSortValueIsRejected() {
+        assertThatThrownBy(() -> UserSort.POPULAR.after(new KeysetCursor("many", "u1")))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+    }
+
+    // Pages the way the repository does: sort, match after(cursor), take a page
+    private static List<String> pageThrough(UserSort sort, List<User> users, int pageSize) {
+        Comparator<User> order = mongoOrder(sort);
+        List<String> seen = new ArrayList<>();
+        KeysetCursor cursor = null;
+        while (true) {
+            Document criteria = cursor != null ? sort.after(cursor).getCriteriaObject() : new Document();
+            List<User> page = users.stream()
+                    .filter(user -> matches(criteria, user))
+                    .sorted(order)
+                    .limit(pageSize)
+                    .toList();
+            if (page.isEmpty()) {
+                return seen;
+            }
+            page.forEach(user -> seen.add(user.getId()));
+            cursor = sort.cursorAfter(page.get(page.size() - 1));
+        }
+    }
+
+    // MongoDB sorts missing values lowest, then breaks ties by _id ascending
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<User> mongoOrder(UserSort sort) {
+        Function<User, Comparable> value = user -> (Comparable) fields(user).get(sort.field());
+        Comparator<User> bySortValue = Comparator.comparing(value, Comparator.nullsFirst(Comparator.naturalOrder()));
+        if (sort.toSort().getOrderFor(sort.field()).isDescending()) {
+            bySortValue = bySortValue.reversed();
+        }
+        return bySortValue.thenComparing(User::getId);
+    }
+
+    // Evaluates the subset of query operators after() produces: $or, $lt, $gt, $ne and equality
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean matches(Document criteria, User user) {
+        Map<String, Object> fields = fields(user);
+        return criteria.entrySet().stream().allMatch(entry -> {
+            if (entry.getKey().equals("$or")) {
+                return ((List<Document>) entry.getValue()).stream().anyMatch(branch -> matches(branch, user));
+            }
+            Comparable actual = (Comparable) fields.get(entry.getKey());
+            if (!(entry.getValue() instanceof Document condition)) {
+                Object expected = normalize(entry.getValue());
+                return actual == null ? expected == null : expected != null && actual.compareTo(expected) == 0;
+            }
+            return condition.entrySet().stream().allMatch(operator -> {
+                Object operand = normalize(operator.getValue());
+                return switch (operator.getKey()) {
+                    case "$lt" -> actual != null && actual.compareTo(operand) < 0;
+                    case "$gt" -> actual != null && actual.compareTo(operand) > 0;
+                    case "$ne" -> operand == null ? actual != null : actual == null || actual.compareTo(operand) != 0;
+                    default -> throw new IllegalArgumentException(operator.getKey());
+                };
+            });
+        });
+    }
+
+    private static Object normalize(Object value) {
+        return value instanceof Decimal128 decimal ? decimal.bigDecimalValue() : value;
+    }
+
+    private static Map<String, Object> fields(User user) {
+        CreatorProfile creatorProfile = user.getCreatorProfile();
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("_id", user.getId());
+        if (creatorProfile != null && creatorProfile.getStatistics() != null) {
+            fields.put(SUBSCRIBERS, creatorProfile.getStatistics().getSubscriberCount());
+        }
+        if (creatorProfile != null) {
+            fields.put(PRICE, creatorProfile.getSubscriptionPrice());
+        }
+        return fields;
+    }
+
+    private static User creator(String id, long subscribers) {
+        CreatorProfile creatorProfile = new CreatorProfile();
+        creatorProfile.getStatistics().setSubscriberCount(subscribers);
+        User user = new User();
+        user.setId(id);
+        user.setCreatorProfile(creatorProfile);
+        return user;
+    }
+
+    private static User withoutStatistics(String id) {
+        User user = creator(id, 0);
+        user.getCreatorProfile().setStatistics(null);
+        return user;
+    }
+
+    private static User priced(String id, String price) {
+        User user = creator(id, 0);
+        user.getCreatorProfile().setSubscriptionPrice(price != null ? new BigDecimal(price) : null);
+        return user;
+    }
+}
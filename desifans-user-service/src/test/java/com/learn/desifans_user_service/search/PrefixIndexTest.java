@@ -0,0 +1,70 @@
+package com.learn.desifans_user_service.search;
+
+import com.learn.desifans_user_service.dto.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixIndexTest {
+
+    private final PrefixIndex index = build();
+
+    @Test
+    void bestScoredEntriesComeFirst() {
+        List<PrefixIndex.ScoredSuggestion> results = index.top("a", 10, id -> false);
+
+        assertThat(results).extracting(result -> result.suggestion().getId())
+                .containsExactly("u3", "u1", "u4", "u2");
+        assertThat(results).extracting(PrefixIndex.ScoredSuggestion::score)
+                .isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    void limitKeepsTheTopEntries() {
+        assertThat(index.top("a", 2, id -> false))
+                .extracting(result -> result.suggestion().getId())
+                .containsExactly("u3", "u1");
+    }
+
+    @Test
+    void entryMatchingSeveralKeysIsReturnedOnce() {
+        // u3 matches both "ana" and "anand"
+        List<PrefixIndex.ScoredSuggestion> results = index.top("an", 10, id -> false);
+
+        assertThat(results).extracting(result -> result.suggestion().getId())
+                .containsExactly("u3", "u1");
+    }
+
+    @Test
+    void prefixWithoutMatchesIsEmpty() {
+        assertThat(index.top("zz", 10, id -> false)).isEmpty();
+        assertThat(index.top("b", 10, id -> false)).isEmpty();
+        assertThat(PrefixIndex.EMPTY.top("a", 10, id -> false)).isEmpty();
+    }
+
+    @Test
+    void skippedEntriesLeaveRoomForTheNextBest() {
+        Set<String> changed = Set.of("u3");
+
+        assertThat(index.top("a", 2, changed::contains))
+                .extracting(result -> result.suggestion().getId())
+                .containsExactly("u1", "u4");
+    }
+
+    private static PrefixIndex build() {
+        PrefixIndex.Builder builder = new PrefixIndex.Builder();
+        builder.add(suggestion("u1"), 50, List.of("anita"));
+        builder.add(suggestion("u2"), 10, List.of("arjun", "aa"));
+        builder.add(suggestion("u3"), 90, List.of("ana", "anand"));
+        builder.add(suggestion("u4"), 30, List.of("asha"));
+        builder.add(suggestion("u5"), 70, List.of("cyrus"));
+        return builder.build();
+    }
+
+    private static Suggestion suggestion(String id) {
+        return Suggestion.builder().id(id).username(id).build();
+    }
+}
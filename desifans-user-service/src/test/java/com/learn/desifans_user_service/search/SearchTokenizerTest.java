@@ -0,0 +1,29 @@
+package com.learn.desifans_user_service.search;
+
+import com.learn.desifans_user_service.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTokenizerTest {
+
+    @Test
+    void prefixesLetAPartialWordFindTheWholeName() {
+        User user = new User("desifan_99", "fan@example.com", "hash", LocalDate.of(1990, 1, 1));
+
+        SearchTokenizer.apply(user);
+
+        assertThat(user.getSearchTokens()).containsExactly("desifan", "99", "desifan99");
+        assertThat(user.getSearchPrefixes()).contains("de", "desi", "desifa", "desifan9")
+                .doesNotContain("d", "desifan", "99", "desifan99");
+    }
+
+    @Test
+    void queriesAreNormalizedLikeTheIndexedNames() {
+        assertThat(SearchTokenizer.tokenize("José_Díaz")).isEqualTo(SearchTokenizer.tokenize("jose diaz"));
+        assertThat(SearchTokenizer.prefixesFor(List.of("jose"))).containsExactly("jo", "jos");
+    }
+}
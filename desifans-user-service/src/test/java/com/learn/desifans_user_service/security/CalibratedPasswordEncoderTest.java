@@ -0,0 +1,24 @@
+package com.learn.desifans_user_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedPasswordEncoderTest {
+
+    private final CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(6);
+
+    @Test
+    void weakerHashesAreUpgraded() {
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding("plain-text")).isTrue();
+    }
+
+    @Test
+    void hashesAtOrAboveTheTargetAreNeverReencodedDownward() {
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(10).encode("secret"))).isFalse();
+    }
+}
@@ -0,0 +1,57 @@
+package com.learn.desifans_user_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "127.0.0.1"));
+
+    @Test
+    void headersFromUntrustedPeersAreIgnored() {
+        MockHttpServletRequest request = request("203.0.113.7", "198.51.100.1");
+        request.addHeader("X-Real-IP", "198.51.100.2");
+
+        assertThat(resolver.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void rightmostUntrustedHopIsTheClient() {
+        // The client prepended a spoofed entry; the proxies appended the real hops
+        MockHttpServletRequest request = request("10.0.0.5", "1.2.3.4, 203.0.113.7, 10.0.0.9");
+
+        assertThat(resolver.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void changingTheSpoofedPrefixKeepsTheSameClient() {
+        assertThat(resolver.resolve(request("10.0.0.5", "5.6.7.8, 203.0.113.7")))
+                .isEqualTo(resolver.resolve(request("10.0.0.5", "9.9.9.9, 203.0.113.7")));
+    }
+
+    @Test
+    void malformedHopFallsBackToThePeer() {
+        assertThat(resolver.resolve(request("10.0.0.5", "203.0.113.7, not-an-ip"))).isEqualTo("10.0.0.5");
+    }
+
+    @Test
+    void realIpIsUsedFromTrustedPeersWithoutForwardedFor() {
+        MockHttpServletRequest request = request("127.0.0.1", null);
+        request.addHeader("X-Real-IP", "203.0.113.7");
+
+        assertThat(resolver.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
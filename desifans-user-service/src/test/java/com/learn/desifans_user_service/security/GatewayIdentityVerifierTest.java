@@ -0,0 +1,79 @@
+package com.learn.desifans_user_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GatewayIdentityVerifierTest {
+
+    private static final String SECRET = "test-gateway-identity-secret-0123456789";
+
+    private final GatewayIdentityVerifier verifier = new GatewayIdentityVerifier(SECRET, 60_000);
+
+    @Test
+    void signedIdentityIsTrusted() throws Exception {
+        MockHttpServletRequest request = signed("u1", "CREATOR", "s1", System.currentTimeMillis());
+
+        assertThat(verifier.verify(request)).contains(new GatewayIdentity("u1", "CREATOR", "s1"));
+    }
+
+    @Test
+    void tamperedHeaderIsRejected() throws Exception {
+        MockHttpServletRequest request = signed("u1", "USER", "s1", System.currentTimeMillis());
+        request.removeHeader(GatewayIdentityVerifier.USER_ROLE_HEADER);
+        request.addHeader(GatewayIdentityVerifier.USER_ROLE_HEADER, "ADMIN");
+
+        assertThat(verifier.verify(request)).isEmpty();
+    }
+
+    @Test
+    void staleSignatureIsRejected() throws Exception {
+        assertThat(verifier.verify(signed("u1", "USER", "s1", System.currentTimeMillis() - 120_000))).isEmpty();
+    }
+
+    @Test
+    void unsignedHeadersAreIgnored() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(GatewayIdentityVerifier.USER_ID_HEADER, "u1");
+
+        assertThat(verifier.verify(request)).isEmpty();
+    }
+
+    @Test
+    void withoutASecretNothingIsTrusted() throws Exception {
+        GatewayIdentityVerifier unconfigured = new GatewayIdentityVerifier("", 60_000);
+
+        assertThat(unconfigured.verify(signed("u1", "USER", "s1", System.currentTimeMillis()))).isEmpty();
+    }
+
+    @Test
+    void shortSecretIsRefused() {
+        assertThatThrownBy(() -> new GatewayIdentityVerifier("too-short", 60_000))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    // Signs the headers the way the gateway does
+    private static MockHttpServletRequest signed(String userId, String role, String sessionId, long timestamp)
+            throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] signature = mac.doFinal((userId + "|" + role + "|" + sessionId + "|" + timestamp)
+                .getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(GatewayIdentityVerifier.USER_ID_HEADER, userId);
+        request.addHeader(GatewayIdentityVerifier.USER_ROLE_HEADER, role);
+        request.addHeader(GatewayIdentityVerifier.SESSION_ID_HEADER, sessionId);
+        request.addHeader(GatewayIdentityVerifier.IDENTITY_TIMESTAMP_HEADER, Long.toString(timestamp));
+        request.addHeader(GatewayIdentityVerifier.IDENTITY_SIGNATURE_HEADER,
+                Base64.getUrlEncoder().withoutPadding().encodeToString(signature));
+        return request;
+    }
+}
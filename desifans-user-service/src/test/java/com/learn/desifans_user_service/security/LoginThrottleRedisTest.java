@@ -0,0 +1,106 @@
+package com.learn.desifans_user_service.security;
+
+import com.learn.desifans_user_service.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the sliding-window script against a real Redis; skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class LoginThrottleRedisTest {
+
+    private static final String IP = "203.0.113.7";
+    private static final String IP_WINDOW = "auth:throttle:ip:" + IP;
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, String> redisTemplate;
+
+    @BeforeEach
+    void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setDefaultSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    @AfterEach
+    void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void identifierWindowRejectsOnceFullWithoutRecordingTheRejection() {
+        LoginThrottle throttle = throttle(60_000, 3, 50);
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("Alice@Example.com", IP);
+        }
+
+        // Identifiers are normalized, so a change of case is the same window
+        assertThatThrownBy(() -> throttle.acquire(" alice@example.com", IP))
+                .isInstanceOf(LoginThrottledException.class)
+                .satisfies(e -> assertThat(((LoginThrottledException) e).getRetryAfterSeconds()).isBetween(1L, 60L));
+        assertThat(redisTemplate.opsForZSet().zCard(IP_WINDOW)).isEqualTo(3);
+    }
+
+    @Test
+    void ipWindowIsSharedAcrossIdentifiers() {
+        LoginThrottle throttle = throttle(60_000, 10, 4);
+        for (int i = 0; i < 4; i++) {
+            throttle.acquire("user" + i, IP);
+        }
+
+        assertThatThrownBy(() -> throttle.acquire("someone-else", IP)).isInstanceOf(LoginThrottledException.class);
+        throttle.acquire("someone-else", "198.51.100.1");
+    }
+
+    @Test
+    void instancesShareOneWindow() {
+        LoginThrottle first = throttle(60_000, 2, 50);
+        LoginThrottle second = throttle(60_000, 2, 50);
+        first.acquire("alice", IP);
+        second.acquire("alice", IP);
+
+        assertThatThrownBy(() -> first.acquire("alice", IP)).isInstanceOf(LoginThrottledException.class);
+    }
+
+    @Test
+    void attemptsLeaveTheWindowAsItSlides() throws InterruptedException {
+        LoginThrottle throttle = throttle(500, 1, 50);
+        throttle.acquire("alice", IP);
+        assertThatThrownBy(() -> throttle.acquire("alice", IP)).isInstanceOf(LoginThrottledException.class);
+
+        Thread.sleep(600);
+
+        throttle.acquire("alice", IP);
+        assertThat(redisTemplate.opsForZSet().zCard(IP_WINDOW)).isEqualTo(1);
+    }
+
+    private LoginThrottle throttle(long windowMillis, int maxPerIdentifier, int maxPerIp) {
+        return new LoginThrottle(redisTemplate, new SimpleMeterRegistry(), true,
+                windowMillis, maxPerIdentifier, maxPerIp, 1_000);
+    }
+}
@@ -0,0 +1,88 @@
+package com.learn.desifans_user_service.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the generation scripts against a real Redis; skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class TokenGenerationRedisTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, String> redisTemplate;
+
+    @BeforeEach
+    void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setDefaultSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    @AfterEach
+    void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void revocationOnOneInstanceCoversTokensStampedOnAnother() {
+        TokenGenerationService issuer = service();
+        TokenGenerationService revoker = service();
+        long stamped = issuer.currentSessionGeneration("s1");
+
+        revoker.revokeSession("s1");
+
+        // A fresh instance has nothing cached and reads the generation from Redis
+        TokenGenerationService checker = service();
+        assertThat(checker.isStale(token(stamped))).isTrue();
+        assertThat(checker.isStale(token(issuer.currentSessionGeneration("s1")))).isFalse();
+    }
+
+    @Test
+    void backToBackRevocationsAlwaysMoveForward() {
+        TokenGenerationService generations = service();
+        generations.revokeSession("s1");
+        long stamped = generations.currentSessionGeneration("s1");
+
+        generations.revokeSession("s1");
+
+        assertThat(service().isStale(token(stamped))).isTrue();
+        assertThat(redisTemplate.getExpire("auth:gen:session:s1")).isPositive();
+    }
+
+    private TokenGenerationService service() {
+        return new TokenGenerationService(redisTemplate, mock(RedisMessageListenerContainer.class),
+                604_800_000L, 1_000, 300_000, true);
+    }
+
+    private static VerifiedToken token(long sessionGeneration) {
+        return new VerifiedToken(null, "s1", "USER", "ACCESS_TOKEN", "t1",
+                0, sessionGeneration, Instant.now().plusSeconds(60));
+    }
+}
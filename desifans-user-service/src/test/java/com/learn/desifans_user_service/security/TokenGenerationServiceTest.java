@@ -0,0 +1,80 @@
+package com.learn.desifans_user_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenGenerationServiceTest {
+
+    @Test
+    void tokenStampedBeforeARevocationIsStale() {
+        TokenGenerationService generations = localService();
+        long stamped = generations.currentUserGeneration("u1");
+
+        generations.revokeUser("u1");
+
+        assertThat(generations.isStale(token("u1", stamped, 0))).isTrue();
+        assertThat(generations.isStale(token("u1", generations.currentUserGeneration("u1"), 0))).isFalse();
+    }
+
+    @Test
+    void repeatedRevocationsKeepMovingForward() {
+        TokenGenerationService generations = localService();
+        generations.revokeUser("u1");
+        long stamped = generations.currentUserGeneration("u1");
+
+        generations.revokeUser("u1");
+
+        assertThat(generations.isStale(token("u1", stamped, 0))).isTrue();
+    }
+
+    @Test
+    void tokensWithoutGenerationsStayValidUntilARevocation() {
+        TokenGenerationService generations = localService();
+
+        assertThat(generations.isStale(token("u1", 0, 0))).isFalse();
+
+        generations.revokeUser("u1");
+        assertThat(generations.isStale(token("u1", 0, 0))).isTrue();
+    }
+
+    @Test
+    void redisErrorsFollowTheFailOpenSetting() {
+        assertThat(failingService(true).isStale(token("u1", 1, 1))).isFalse();
+        assertThat(failingService(false).isStale(token("u1", 1, 1))).isTrue();
+    }
+
+    // Redis unreachable at startup, so generations are tracked in process
+    private static TokenGenerationService localService() {
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        return new TokenGenerationService(redisTemplate, mock(RedisMessageListenerContainer.class),
+                604_800_000L, 1_000, 300_000, true);
+    }
+
+    // Redis reachable at startup but failing on every lookup
+    @SuppressWarnings("unchecked")
+    private static TokenGenerationService failingService(boolean failOpen) {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        return new TokenGenerationService(redisTemplate, mock(RedisMessageListenerContainer.class),
+                604_800_000L, 1_000, 300_000, failOpen);
+    }
+
+    private static VerifiedToken token(String userId, long userGeneration, long sessionGeneration) {
+        return new VerifiedToken(userId, "s1", "USER", "ACCESS_TOKEN", "t1",
+                userGeneration, sessionGeneration, Instant.now().plusSeconds(60));
+    }
+}
@@ -0,0 +1,83 @@
+package com.learn.desifans_user_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+    private final RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+
+    @Test
+    void revocationsMadeWhileRedisIsDownArePublishedOnceItIsBack() {
+        when(redisTemplate.hasKey(anyString()))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(true);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        scanReturns();
+        TokenRevocationCache cache = cache();
+
+        cache.revoke("t1", Instant.now().plusSeconds(60));
+
+        assertThat(cache.isRevoked("t1")).isTrue();
+        verify(valueOperations, never()).set(anyString(), anyString(), anyLong(), any(TimeUnit.class));
+
+        cache.reconcile();
+
+        verify(listenerContainer).addMessageListener(eq(cache), any(Topic.class));
+        verify(valueOperations).set(eq("auth:blacklist:t1"), eq("blacklisted"), anyLong(), eq(TimeUnit.MILLISECONDS));
+        verify(redisTemplate).convertAndSend(eq("auth:revocations"), anyString());
+    }
+
+    @Test
+    void reconcilePicksUpRevocationsWhoseMessagesWereMissed() {
+        when(redisTemplate.hasKey(anyString())).thenReturn(true);
+        scanReturns("auth:blacklist:t2");
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(60_000L));
+        TokenRevocationCache cache = cache();
+
+        assertThat(cache.isRevoked("t2")).isFalse();
+
+        cache.reconcile();
+
+        assertThat(cache.isRevoked("t2")).isTrue();
+    }
+
+    private TokenRevocationCache cache() {
+        return new TokenRevocationCache(redisTemplate, listenerContainer, 1_000, 0.001);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scanReturns(String... keys) {
+        Iterator<String> iterator = List.of(keys).iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+    }
+}
@@ -0,0 +1,271 @@
+package com.learn.desifans_user_service.service;
+
+import com.learn.desifans_user_service.model.UserSession;
+import com.learn.desifans_user_service.repository.UserSessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the session scripts against a real Redis; skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SessionStoreRedisTest {
+
+    private static final String USER_ID = "user-1";
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, String> redisTemplate;
+    private UserSessionRepository sessionRepository;
+    private SessionStore sessionStore;
+
+    @BeforeEach
+    void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setDefaultSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+
+        sessionRepository = mock(UserSessionRepository.class);
+        sessionStore = new SessionStore(redisTemplate, sessionRepository, mock(SessionWriteBehind.class));
+    }
+
+    @AfterEach
+    void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void admitEvictsTheOldestSessionsBeyondTheLimit() {
+        LocalDateTime now = LocalDateTime.now();
+        sessionStore.admit(session("s1", now.minusMinutes(3)), 2);
+        sessionStore.admit(session("s2", now.minusMinutes(2)), 2);
+        long sequenceBefore = sequence();
+
+        List<String> evicted = sessionStore.admit(session("s3", now.minusMinutes(1)), 2);
+
+        assertThat(evicted).containsExactly("s1");
+        assertThat(redisTemplate.opsForZSet().range(SessionStore.USER_INDEX_PREFIX + USER_ID, 0, -1))
+                .containsExactly("s2", "s3");
+        assertThat(sessionStore.find("s1")).get().extracting(UserSession::getIsActive).isEqualTo(false);
+        assertThat(redisTemplate.opsForZSet().score(SessionStore.DIRTY_KEY, "s1")).isGreaterThan(sequenceBefore);
+        assertThat(sessionStore.findActiveByUser(USER_ID)).extracting(UserSession::getId).containsExactly("s2", "s3");
+        verify(sessionRepository).deactivateAll(List.of("s1"));
+    }
+
+    @Test
+    void concurrentAdmitsNeverExceedTheLimit() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> admits = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                UserSession session = session("s" + i, now.minusSeconds(60 - i));
+                admits.add(executor.submit(() -> sessionStore.admit(session, 3)));
+            }
+            for (Future<List<String>> admit : admits) {
+                admit.get(30, TimeUnit.SECONDS);
+            }
+
+            // An admit that kept losing the race falls back to Mongo, so fewer may be cached, never more
+            long activeInRedis = IntStream.range(0, 20)
+                    .mapToObj(i -> redisTemplate.<String, String>opsForHash().get(SessionStore.SESSION_PREFIX + "s" + i, "active"))
+                    .filter("1"::equals)
+                    .count();
+            assertThat(activeInRedis).isBetween(1L, 3L);
+            assertThat(redisTemplate.opsForZSet().zCard(SessionStore.USER_INDEX_PREFIX + USER_ID)).isEqualTo(activeInRedis);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sessionsOnlyInMongoCountTowardsTheLimit() {
+        LocalDateTime now = LocalDateTime.now();
+        // Redis lost the index, Mongo still has two active sessions
+        when(sessionRepository.findActiveSessionsByUserId(USER_ID))
+                .thenReturn(List.of(session("m1", now.minusMinutes(3)), session("m2", now.minusMinutes(2))));
+
+        List<String> evicted = sessionStore.admit(session("s3", now.minusMinutes(1)), 2);
+
+        assertThat(evicted).containsExactly("m1");
+        assertThat(redisTemplate.opsForZSet().range(SessionStore.USER_INDEX_PREFIX + USER_ID, 0, -1))
+                .containsExactly("m2", "s3");
+    }
+
+    @Test
+    void cachingAnOlderSessionNeverShortensTheIndexExpiry() {
+        LocalDateTime now = LocalDateTime.now();
+        sessionStore.admit(session("s2", now.minusMinutes(1)), 5);
+        UserSession older = session("s1", now.minusDays(6));
+        when(sessionRepository.findById("s1")).thenReturn(Optional.of(older));
+
+        sessionStore.find("s1");
+
+        assertThat(redisTemplate.opsForZSet().range(SessionStore.USER_INDEX_PREFIX + USER_ID, 0, -1))
+                .containsExactly("s1", "s2");
+        assertThat(redisTemplate.getExpire(SessionStore.USER_INDEX_PREFIX + USER_ID, TimeUnit.DAYS)).isGreaterThanOrEqualTo(6);
+    }
+
+    @Test
+    void rebuildingTheIndexKeepsNewerStateFromRedis() {
+        LocalDateTime now = LocalDateTime.now();
+        sessionStore.admit(session("s1", now.minusMinutes(1)), 5);
+        sessionStore.deactivate(USER_ID, "s1");
+        // The writer has not flushed the logout yet, so Mongo still says active
+        when(sessionRepository.findActiveSessionsByUserId(USER_ID)).thenReturn(List.of(session("s1", now.minusMinutes(1))));
+
+        sessionStore.findActiveByUser(USER_ID);
+
+        assertThat(redisTemplate.<String, String>opsForHash().get(SessionStore.SESSION_PREFIX + "s1", "active")).isEqualTo("0");
+        assertThat(redisTemplate.hasKey(SessionStore.USER_INDEX_PREFIX + USER_ID)).isFalse();
+    }
+
+    @Test
+    void deleteAllDropsTheSessionsFromTheDirtyQueue() {
+        LocalDateTime now = LocalDateTime.now();
+        sessionStore.admit(session("s1", now.minusMinutes(2)), 5);
+        sessionStore.admit(session("s2", now.minusMinutes(1)), 5);
+
+        sessionStore.deleteAll(USER_ID);
+
+        assertThat(redisTemplate.opsForZSet().score(SessionStore.DIRTY_KEY, "s1")).isNull();
+        assertThat(redisTemplate.opsForZSet().score(SessionStore.DIRTY_KEY, "s2")).isNull();
+        assertThat(redisTemplate.hasKey(SessionStore.SESSION_PREFIX + "s1")).isFalse();
+        assertThat(redisTemplate.hasKey(SessionStore.USER_INDEX_PREFIX + USER_ID)).isFalse();
+        assertThat(redisTemplate.opsForZSet().score(SessionStore.DELETED_USERS_KEY, USER_ID)).isNotNull();
+        verify(sessionRepository).deleteByUserId(USER_ID);
+    }
+
+    @Test
+    void flushRacingWithDeleteAllRemovesWhatItWrote() {
+        LocalDateTime now = LocalDateTime.now();
+        sessionStore.admit(session("s1", now.minusMinutes(1)), 5);
+        // The user's sessions were deleted after this flush would have read the hash
+        redisTemplate.opsForZSet().add(SessionStore.DELETED_USERS_KEY, USER_ID, System.currentTimeMillis() + 1_000);
+        SessionWriteBehind writer = new SessionWriteBehind(redisTemplate, sessionRepository, new SimpleMeterRegistry(), 500, 20, 50_000);
+
+        writer.flush();
+
+        verify(sessionRepository).deleteAllById(List.of("s1"));
+    }
+
+    @Test
+    void evictingRedisWritesChangesThrough() {
+        setEvictionPolicy("allkeys-lru");
+        try {
+            SessionStore writeThrough = new SessionStore(redisTemplate, sessionRepository, mock(SessionWriteBehind.class));
+            LocalDateTime now = LocalDateTime.now();
+            UserSession session = session("s1", now.minusMinutes(1));
+
+            writeThrough.admit(session, 5);
+            writeThrough.recordRefresh("s1", "access-digest", now);
+
+            verify(sessionRepository).save(session);
+            verify(sessionRepository).recordRefresh("s1", "access-digest", now);
+            assertThat(redisTemplate.opsForZSet().zCard(SessionStore.DIRTY_KEY)).isZero();
+        } finally {
+            setEvictionPolicy("noeviction");
+        }
+    }
+
+    @Test
+    void deactivateAllRequeuesSessionsTheWriterAlreadyDrained() {
+        LocalDateTime now = LocalDateTime.now();
+        sessionStore.admit(session("s1", now.minusMinutes(2)), 5);
+        sessionStore.admit(session("s2", now.minusMinutes(1)), 5);
+        // The writer flushed both while they were still active
+        redisTemplate.opsForZSet().remove(SessionStore.DIRTY_KEY, "s1", "s2");
+        long sequenceBefore = sequence();
+
+        sessionStore.deactivateAll(USER_ID);
+
+        assertThat(redisTemplate.hasKey(SessionStore.USER_INDEX_PREFIX + USER_ID)).isFalse();
+        assertThat(sessionStore.find("s1")).get().extracting(UserSession::getIsActive).isEqualTo(false);
+        assertThat(sessionStore.find("s2")).get().extracting(UserSession::getIsActive).isEqualTo(false);
+        assertThat(redisTemplate.opsForZSet().score(SessionStore.DIRTY_KEY, "s1")).isGreaterThan(sequenceBefore);
+        assertThat(redisTemplate.opsForZSet().score(SessionStore.DIRTY_KEY, "s2")).isGreaterThan(sequenceBefore);
+        verify(sessionRepository).deactivateAllForUser(USER_ID);
+    }
+
+    @Test
+    void refreshMovesTheSessionToTheBackOfTheDirtyQueue() {
+        LocalDateTime now = LocalDateTime.now();
+        sessionStore.admit(session("s1", now.minusMinutes(1)), 5);
+        Double queuedAt = redisTemplate.opsForZSet().score(SessionStore.DIRTY_KEY, "s1");
+
+        sessionStore.recordRefresh("s1", "access-digest", now);
+
+        assertThat(redisTemplate.opsForZSet().score(SessionStore.DIRTY_KEY, "s1")).isGreaterThan(queuedAt);
+        assertThat(sessionStore.find("s1")).get().extracting(UserSession::getAccessTokenHash).isEqualTo("access-digest");
+        verify(sessionRepository, never()).recordRefresh("s1", "access-digest", now);
+    }
+
+    @Test
+    void refreshOfAnUncachedSessionGoesToMongo() {
+        LocalDateTime now = LocalDateTime.now();
+
+        sessionStore.recordRefresh("missing", "access-digest", now);
+
+        assertThat(redisTemplate.hasKey(SessionStore.SESSION_PREFIX + "missing")).isFalse();
+        verify(sessionRepository).recordRefresh("missing", "access-digest", now);
+    }
+
+    private void setEvictionPolicy(String policy) {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().setConfig("maxmemory-policy", policy);
+            return null;
+        });
+    }
+
+    private long sequence() {
+        return Long.parseLong(redisTemplate.opsForValue().get(SessionStore.SEQUENCE_KEY));
+    }
+
+    private static UserSession session(String id, LocalDateTime createdAt) {
+        UserSession session = new UserSession();
+        session.setId(id);
+        session.setUserId(USER_ID);
+        session.setRefreshTokenHash("refresh-" + id);
+        session.setIsActive(true);
+        session.setCreatedAt(createdAt);
+        session.setLastActivity(createdAt);
+        session.setExpiresAt(createdAt.plusDays(7));
+        return session;
+    }
+}
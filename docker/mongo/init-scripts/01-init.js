@@ -60,28 +60,28 @@ db.users.createIndex({ 'status': 1, 'createdAt': 1 });
 db.users.createIndex({ 'creatorProfile.category': 1, 'status': 1 });
 db.users.createIndex({ 'profile.isVerified': 1, 'role': 1 });
 
-// Create text indexes for search
-db.users.createIndex({
-  'profile.displayName': 'text',
-  'creatorProfile.creatorName': 'text',
-  'creatorProfile.category': 'text',
-  'profile.bio': 'text'
-}, {
-  name: 'user_search_index',
-  weights: {
-    'profile.displayName': 10,
-    'creatorProfile.creatorName': 10,
-    'creatorProfile.category': 5,
-    'profile.bio': 1
-  }
-});
+// Keyset-paged listings: equality filters, then the sort field, then _id as tie-breaker
+db.users.createIndex({ 'role': 1, 'status': 1, 'createdAt': -1, '_id': 1 }, { name: 'role_status_createdAt' });
+db.users.createIndex({ 'role': 1, 'status': 1, 'creatorProfile.statistics.subscriberCount': -1, '_id': 1 }, { name: 'role_status_subscribers' });
+db.users.createIndex({ 'creatorProfile.category': 1, 'role': 1, 'status': 1, 'createdAt': -1, '_id': 1 }, { name: 'category_role_status_createdAt' });
+db.users.createIndex({ 'creatorProfile.category': 1, 'role': 1, 'status': 1, 'creatorProfile.statistics.subscriberCount': -1, '_id': 1 }, { name: 'category_role_status_subscribers' });
+db.users.createIndex({ 'creatorProfile.isVerified': 1, 'role': 1, 'status': 1, 'creatorProfile.statistics.subscriberCount': -1, '_id': 1 }, { name: 'verified_role_status_subscribers' });
+// Price browsing: subscriptionPrice is stored as Decimal128, so the range is numeric and sorted by the index
+db.users.createIndex({ 'role': 1, 'status': 1, 'creatorProfile.subscriptionPrice': 1, '_id': 1 }, { name: 'role_status_price' });
+
+// Text index for search over the normalized searchTokens derived on save.
+// The status prefix keeps each search within one status; language 'none' matches whole tokens.
+db.users.createIndex(
+  { 'status': 1, 'searchTokens': 'text' },
+  { name: 'user_search_index', default_language: 'none' }
+);
 
-// User Sessions Collection
-db.createCollection('userSessions');
-db.userSessions.createIndex({ 'userId': 1 });
-db.userSessions.createIndex({ 'sessionToken': 1 }, { unique: true });
-db.userSessions.createIndex({ 'isActive': 1, 'userId': 1 });
-db.userSessions.createIndex({ 'expiresAt': 1 }, { expireAfterSeconds: 0 });
+// User Sessions Collection (must match @Document(collection = "user_sessions"))
+// _id is the sessionId claim of the session's tokens, so refresh and logout need no extra index
+db.createCollection('user_sessions');
+db.user_sessions.createIndex({ 'userId': 1, 'isActive': 1 });
+db.user_sessions.createIndex({ 'isActive': 1, 'lastActivity': 1 }, { name: 'isActive_lastActivity' });
+db.user_sessions.createIndex({ 'expiresAt': 1 }, { expireAfterSeconds: 0 });
 
 // Email Verifications Collection
 db.createCollection('emailVerifications');
@@ -132,7 +132,7 @@ db.users.insertOne({
 });
 
 print('✅ DesiFans Users database initialized successfully');
-print('📊 Created collections: users, userSessions, emailVerifications, userActivities');
+print('📊 Created collections: users, user_sessions, emailVerifications, userActivities');
 print('🔍 Created indexes for optimal query performance');
 print('👤 Sample admin user created (admin@desifans.com / admin123)');
 